@@ -0,0 +1,68 @@
+package com.app.authservice.security;
+
+import com.app.authservice.model.Permission;
+import com.app.authservice.model.Role;
+import com.app.authservice.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+// Objects shared by the security benchmarks, wired the way Spring would wire them
+final class BenchmarkFixtures {
+
+    static final String SECRET = "benchmark-secret-key-for-jwt-signing-that-is-long-enough-for-hs512";
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtKeyRing keyRing() {
+        JwtKeyRing keyRing = new JwtKeyRing();
+        ReflectionTestUtils.setField(keyRing, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(keyRing, "jwtKeyId", "bench");
+        keyRing.init();
+        return keyRing;
+    }
+
+    static JwtTokenProvider tokenProvider(JwtKeyRing keyRing, boolean fastIssuer) {
+        JwtTokenProvider tokenProvider = new JwtTokenProvider(keyRing, new VerifiedTokenCache(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(tokenProvider, "fastIssuerEnabled", fastIssuer);
+        return tokenProvider;
+    }
+
+    static User user(int roleCount, int permissionsPerRole) {
+        Set<Role> roles = new HashSet<>();
+        long permissionId = 0;
+        for (int r = 0; r < roleCount; r++) {
+            Set<Permission> permissions = new HashSet<>();
+            for (int p = 0; p < permissionsPerRole; p++) {
+                Permission permission = new Permission();
+                permission.setId(++permissionId);
+                permission.setName("resource" + r + ":action" + p);
+                permissions.add(permission);
+            }
+            roles.add(Role.builder()
+                    .id((long) r)
+                    .name("ROLE" + r)
+                    .permissions(permissions)
+                    .build());
+        }
+
+        return User.builder()
+                .id("5f0c8a52-58a2-4d59-9a0e-1f7b3c7a2b10")
+                .email("jane.doe@example.com")
+                .username("jane.doe")
+                .password("$2a$10$abcdefghijklmnopqrstuuJ0mQ6r0J6w9XKqW8h2Yk0W1vQ2bQ1e")
+                .roles(roles)
+                .build();
+    }
+
+    static Authentication authentication(User user) {
+        UserPrincipal principal = UserPrincipal.create(user);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+}
@@ -0,0 +1,52 @@
+package com.app.authservice.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access token issuance through the JJWT builder versus {@link HmacJwtIssuer}.
+ * Run with {@code -prof gc} to compare the allocation rate per token.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class JwtIssuanceBenchmark {
+
+    private JwtTokenProvider builderProvider;
+    private JwtTokenProvider fastProvider;
+    private Authentication authentication;
+
+    @Setup
+    public void setUp() {
+        JwtKeyRing keyRing = BenchmarkFixtures.keyRing();
+        builderProvider = BenchmarkFixtures.tokenProvider(keyRing, false);
+        fastProvider = BenchmarkFixtures.tokenProvider(keyRing, true);
+        authentication = BenchmarkFixtures.authentication(BenchmarkFixtures.user(2, 2));
+    }
+
+    @Benchmark
+    public String builder() {
+        return builderProvider.generateToken(authentication);
+    }
+
+    @Benchmark
+    public String fastPath() {
+        return fastProvider.generateToken(authentication);
+    }
+}
@@ -0,0 +1,73 @@
+package com.app.authservice.security;
+
+import jakarta.servlet.http.Cookie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JwtAuthenticationFilter#getJwtFromRequest} for each place a token
+ * can come from, plus a request that carries none.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtRequestExtractionBenchmark {
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest bearerRequest;
+    private MockHttpServletRequest queryRequest;
+    private MockHttpServletRequest cookieRequest;
+    private MockHttpServletRequest anonymousRequest;
+
+    @Setup
+    public void setUp() {
+        JwtTokenProvider tokenProvider = BenchmarkFixtures.tokenProvider(BenchmarkFixtures.keyRing(), true);
+        String token = tokenProvider.generateToken(BenchmarkFixtures.authentication(BenchmarkFixtures.user(1, 5)));
+        filter = new JwtAuthenticationFilter(tokenProvider, null, null);
+
+        bearerRequest = new MockHttpServletRequest("GET", "/api/v1/auth/me");
+        bearerRequest.addHeader("Authorization", "Bearer " + token);
+
+        queryRequest = new MockHttpServletRequest("GET", "/api/v1/auth/me");
+        queryRequest.setParameter("token", token);
+
+        cookieRequest = new MockHttpServletRequest("GET", "/api/v1/auth/me");
+        cookieRequest.setCookies(new Cookie("JSESSIONID", "abc"), new Cookie("token", token));
+
+        anonymousRequest = new MockHttpServletRequest("GET", "/api/v1/auth/me");
+    }
+
+    @Benchmark
+    public String bearerHeader() {
+        return filter.getJwtFromRequest(bearerRequest);
+    }
+
+    @Benchmark
+    public String queryParameter() {
+        return filter.getJwtFromRequest(queryRequest);
+    }
+
+    @Benchmark
+    public String cookie() {
+        return filter.getJwtFromRequest(cookieRequest);
+    }
+
+    @Benchmark
+    public String noToken() {
+        return filter.getJwtFromRequest(anonymousRequest);
+    }
+}
@@ -0,0 +1,136 @@
+package com.app.authservice.security;
+
+import com.app.authservice.AuthServiceApplication;
+import com.app.authservice.model.Permission;
+import com.app.authservice.model.Role;
+import com.app.authservice.model.User;
+import com.app.authservice.repo.UserRepository;
+import com.app.authservice.service.RoleService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a principal through the entity graph (the old
+ * {@link CustomUserDetailsService} path) versus the scalar projection, against
+ * the H2 test database with the principal cache disabled. JDBC statements,
+ * entities and collections loaded per call are printed after every iteration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrincipalLoadingBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private RoleService roleService;
+    private CustomUserDetailsService userDetailsService;
+    private Statistics statistics;
+    private String userId;
+
+    private long statementsAtStart;
+    private long entitiesAtStart;
+    private long collectionsAtStart;
+    private long calls;
+
+    @Setup
+    public void setUp() {
+        context = SpringApplication.run(AuthServiceApplication.class,
+                "--spring.profiles.active=test",
+                "--server.port=0",
+                "--spring.jpa.properties.hibernate.generate_statistics=true",
+                "--auth.principal-cache.enabled=false",
+                "--logging.level.org.springframework.security=WARN",
+                "--logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN");
+
+        userRepository = context.getBean(UserRepository.class);
+        roleService = context.getBean(RoleService.class);
+        userDetailsService = context.getBean(CustomUserDetailsService.class);
+        statistics = context.getBean(EntityManagerFactory.class)
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+
+        // A realistic graph: every role carries a handful of permissions
+        EntityManager entityManager = context.getBean(EntityManager.class);
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).executeWithoutResult(tx -> {
+            for (Role role : List.of(roleService.getUserRole(), roleService.getAdminRole(), roleService.getModeratorRole())) {
+                for (int i = 0; i < 5; i++) {
+                    Permission permission = new Permission();
+                    permission.setName(role.getName().toLowerCase() + ":action" + i);
+                    entityManager.persist(permission);
+                    role.getPermissions().add(permission);
+                }
+            }
+        });
+
+        User user = User.builder()
+                .email("bench@example.com")
+                .username("bench")
+                .password("$2a$10$abcdefghijklmnopqrstuuJ0mQ6r0J6w9XKqW8h2Yk0W1vQ2bQ1e")
+                .build();
+        user.getRoles().add(roleService.getUserRole());
+        user.getRoles().add(roleService.getAdminRole());
+        user.getRoles().add(roleService.getModeratorRole());
+        userId = userRepository.save(user).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void startCounting() {
+        statementsAtStart = statistics.getPrepareStatementCount();
+        entitiesAtStart = statistics.getEntityLoadCount();
+        collectionsAtStart = statistics.getCollectionLoadCount();
+        calls = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportStatements() {
+        if (calls == 0) {
+            return;
+        }
+        System.out.printf("%n  per call: %.2f JDBC statements, %.2f entities loaded, %.2f collections loaded%n",
+                (double) (statistics.getPrepareStatementCount() - statementsAtStart) / calls,
+                (double) (statistics.getEntityLoadCount() - entitiesAtStart) / calls,
+                (double) (statistics.getCollectionLoadCount() - collectionsAtStart) / calls);
+    }
+
+    @Benchmark
+    public UserPrincipal entityGraph() {
+        calls++;
+        User user = userRepository.findById(userId).orElseThrow();
+        return UserPrincipal.create(user, roleService.getAuthorities(user.getRoles()));
+    }
+
+    @Benchmark
+    public UserPrincipal projection() {
+        calls++;
+        return (UserPrincipal) userDetailsService.loadUserById(userId);
+    }
+}
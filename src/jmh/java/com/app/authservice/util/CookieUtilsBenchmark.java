@@ -0,0 +1,55 @@
+package com.app.authservice.util;
+
+import jakarta.servlet.http.Cookie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip of the OAuth2 authorization request cookie written by
+ * HttpCookieOAuth2AuthorizationRequestRepository.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CookieUtilsBenchmark {
+
+    private OAuth2AuthorizationRequest authorizationRequest;
+    private Cookie cookie;
+
+    @Setup
+    public void setUp() {
+        authorizationRequest = OAuth2AuthorizationRequest.authorizationCode()
+                .authorizationUri("https://accounts.google.com/o/oauth2/v2/auth")
+                .clientId("benchmark-client-id")
+                .redirectUri("http://localhost:8081/auth/oauth2/callback/google")
+                .scopes(Set.of("profile", "email"))
+                .state("c3RhdGUtdmFsdWUtZm9yLWJlbmNobWFyaw")
+                .build();
+        cookie = new Cookie("oauth2_auth_request", CookieUtils.serialize(authorizationRequest));
+    }
+
+    @Benchmark
+    public String serialize() {
+        return CookieUtils.serialize(authorizationRequest);
+    }
+
+    @Benchmark
+    public OAuth2AuthorizationRequest deserialize() {
+        return CookieUtils.deserialize(cookie, OAuth2AuthorizationRequest.class);
+    }
+}
@@ -5,12 +5,19 @@ import com.app.authservice.dto.request.RegisterRequest;
 import com.app.authservice.dto.request.TokenRefreshRequest;
 import com.app.authservice.dto.response.ApiResponse;
 import com.app.authservice.dto.response.AuthResponse;
+import com.app.authservice.dto.response.AvailabilityResponse;
 import com.app.authservice.dto.response.UserResponse;
+import com.app.authservice.exception.ResourceNotFoundException;
 import com.app.authservice.model.User;
+import com.app.authservice.security.LoginThrottle;
 import com.app.authservice.service.AuthService;
+import com.app.authservice.service.AvailabilityService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
@@ -21,11 +28,28 @@ import java.security.Principal;
 public class AuthController {
 
     private final AuthService authService;
+    private final LoginThrottle loginThrottle;
+    private final AvailabilityService availabilityService;
 
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> authenticateUser(
-            @Valid @RequestBody LoginRequest loginRequest) {
-        AuthResponse response = authService.authenticateUser(loginRequest);
+            @Valid @RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        // Throttled before the user is loaded or the password hashed; the client IP is resolved
+        // from X-Forwarded-For for trusted proxies only (server.forward-headers-strategy)
+        LoginThrottle.Attempt attempt = loginThrottle.begin(loginRequest.getUsernameOrEmail(), request.getRemoteAddr());
+
+        AuthResponse response;
+        try {
+            response = authService.authenticateUser(loginRequest);
+        } catch (BadCredentialsException | ResourceNotFoundException ex) {
+            loginThrottle.failed(attempt);
+            throw ex;
+        } catch (RuntimeException ex) {
+            loginThrottle.abandoned(attempt);
+            throw ex;
+        }
+
+        loginThrottle.succeeded(attempt);
         return ResponseEntity.ok(response);
     }
 
@@ -36,6 +60,14 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    // Only a hint for the sign-up form; registration itself is decided by the unique constraints.
+    // Usernames only: answering for emails would reveal who has an account
+    @GetMapping("/availability")
+    public ResponseEntity<AvailabilityResponse> checkAvailability(@RequestParam String username) {
+        return ResponseEntity.ok(new AvailabilityResponse(
+                "username", username, availabilityService.isUsernameAvailable(username)));
+    }
+
     @PostMapping("/refresh-token")
     public ResponseEntity<AuthResponse> refreshToken(
             @Valid @RequestBody TokenRefreshRequest request) {
@@ -43,10 +75,16 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    // With the device's refresh token only that session ends, without it every session does
     @PostMapping("/logout")
-    public ResponseEntity<ApiResponse> logoutUser(Principal principal) {
+    public ResponseEntity<ApiResponse> logoutUser(
+            Principal principal, @RequestBody(required = false) TokenRefreshRequest request) {
         User currentUser = authService.getCurrentUser();
-        authService.logoutUser(currentUser.getId());
+        if (request != null && StringUtils.hasText(request.getRefreshToken())) {
+            authService.logoutSession(currentUser.getId(), request.getRefreshToken());
+        } else {
+            authService.logoutUser(currentUser.getId());
+        }
         return ResponseEntity.ok(new ApiResponse(true, "User logged out successfully"));
     }
 
@@ -0,0 +1,44 @@
+package com.app.authservice.controller;
+
+import com.app.authservice.security.JwkSetProvider;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwkSetProvider jwkSetProvider;
+
+    @Value("${auth.jwt.jwks.max-age-seconds:300}")
+    private long maxAgeSeconds;
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> getJwks(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        JwkSetProvider.Document document = jwkSetProvider.getDocument();
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic();
+
+        if (document.etag().equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(cacheControl)
+                    .eTag(document.etag())
+                    .build();
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(document.etag())
+                .body(document.json());
+    }
+}
@@ -0,0 +1,43 @@
+package com.app.authservice.controller;
+
+import com.app.authservice.dto.request.TokenIntrospectionRequest;
+import com.app.authservice.dto.response.TokenIntrospectionResponse;
+import com.app.authservice.dto.response.TokenIntrospectionResult;
+import com.app.authservice.service.TokenIntrospectionService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/auth")
+@RequiredArgsConstructor
+public class TokenIntrospectionController {
+
+    private final TokenIntrospectionService introspectionService;
+
+    // RFC 7662 section 2.1: callers authenticate with their own token, which must carry TOKEN_INTROSPECT
+    @PostMapping("/introspect")
+    @PreAuthorize("hasAuthority('TOKEN_INTROSPECT')")
+    public ResponseEntity<TokenIntrospectionResponse> introspect(
+            @Valid @RequestBody TokenIntrospectionRequest request) {
+        List<TokenIntrospectionResult> results = introspectionService.introspect(request.getTokens());
+        long cacheSeconds = introspectionService.cacheSeconds(results);
+
+        CacheControl cacheControl = cacheSeconds > 0
+                ? CacheControl.maxAge(Duration.ofSeconds(cacheSeconds)).cachePrivate()
+                : CacheControl.noStore();
+
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .body(new TokenIntrospectionResponse(results));
+    }
+}
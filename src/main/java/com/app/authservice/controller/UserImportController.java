@@ -0,0 +1,34 @@
+package com.app.authservice.controller;
+
+import com.app.authservice.dto.response.UserImportReport;
+import com.app.authservice.service.UserImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/v1/admin/users")
+@RequiredArgsConstructor
+public class UserImportController {
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private final UserImportService userImportService;
+
+    // The body is streamed, so imports of any size run in constant memory
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserImportReport> importUsers(HttpServletRequest request) throws IOException {
+        UserImportService.Format format = TEXT_CSV.isCompatibleWith(MediaType.parseMediaType(request.getContentType()))
+                ? UserImportService.Format.CSV
+                : UserImportService.Format.NDJSON;
+        return ResponseEntity.ok(userImportService.importUsers(request.getInputStream(), format));
+    }
+}
@@ -0,0 +1,15 @@
+package com.app.authservice.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class TokenIntrospectionRequest {
+    @NotEmpty(message = "At least one token is required")
+    @Size(max = 100, message = "At most 100 tokens can be introspected per request")
+    private List<@NotBlank(message = "Token must not be blank") String> tokens;
+}
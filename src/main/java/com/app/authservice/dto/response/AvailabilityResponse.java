@@ -0,0 +1,14 @@
+package com.app.authservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityResponse {
+    private String field;
+    private String value;
+    private Boolean available;
+}
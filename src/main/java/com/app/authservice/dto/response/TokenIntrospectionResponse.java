@@ -0,0 +1,13 @@
+package com.app.authservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class TokenIntrospectionResponse {
+    // Same order as the tokens in the request
+    private List<TokenIntrospectionResult> results;
+}
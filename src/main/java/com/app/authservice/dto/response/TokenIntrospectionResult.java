@@ -0,0 +1,46 @@
+package com.app.authservice.dto.response;
+
+import com.app.authservice.security.VerifiedToken;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenIntrospectionResult {
+    private boolean active;
+
+    @JsonProperty("sub")
+    private String subject;
+
+    private String username;
+    private List<String> roles;
+
+    @JsonProperty("exp")
+    private Long expiresAt;
+
+    @JsonProperty("iat")
+    private Long issuedAt;
+
+    // RFC 7662: an inactive token reveals nothing beyond "active": false
+    public static TokenIntrospectionResult inactive() {
+        return new TokenIntrospectionResult(false, null, null, null, null, null);
+    }
+
+    public static TokenIntrospectionResult fromToken(VerifiedToken token) {
+        return new TokenIntrospectionResult(
+                true,
+                token.getSubject(),
+                token.getUsername(),
+                token.getRoles(),
+                token.getExpiresAt() != null ? token.getExpiresAt().getEpochSecond() : null,
+                token.getIssuedAt() != null ? token.getIssuedAt().getEpochSecond() : null
+        );
+    }
+}
@@ -0,0 +1,32 @@
+package com.app.authservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportReport {
+    private long total;
+    private long imported;
+    private long failed;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private List<RowError> errors;
+
+    // Only the first auth.import.max-errors errors are listed
+    private boolean errorsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
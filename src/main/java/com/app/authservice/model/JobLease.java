@@ -0,0 +1,29 @@
+package com.app.authservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// Row per background job that must run on one node at a time; see JobLeaseService
+@Entity
+@Table(name = "job_leases")
+@Getter
+@Setter
+@NoArgsConstructor
+public class JobLease {
+
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private String owner;
+
+    @Column(nullable = false)
+    private Instant lockedUntil;
+}
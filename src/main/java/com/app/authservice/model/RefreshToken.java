@@ -3,11 +3,18 @@ package com.app.authservice.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.Instant;
 
+// Databases created before token digests and sessions need db/upgrade/001-refresh-token-digests-and-sessions.sql
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_refresh_tokens_token_hash", columnNames = "token_hash")
+}, indexes = {
+        @Index(name = "idx_refresh_tokens_expiry_date", columnList = "expiryDate"),
+        @Index(name = "idx_refresh_tokens_user_session", columnList = "user_id, sessionId", unique = true)
+})
 @Data
 @NoArgsConstructor
 public class RefreshToken {
@@ -16,16 +23,31 @@ public class RefreshToken {
     @GeneratedValue(strategy = GenerationType.UUID)
     private String id;
 
-    @OneToOne
+    // One row per session: each login adds one, up to auth.jwt.refresh-token.max-sessions per user
+    @ManyToOne
     @JoinColumn(name = "user_id", referencedColumnName = "id")
     private User user;
 
-    @Column(nullable = false, unique = true)
+    // SHA-256 of the token; the token itself is never stored, so a dump of this table cannot be replayed
+    @Column(name = "token_hash", nullable = false, length = 32)
+    private byte[] tokenHash;
+
+    // The raw token, only known when it is issued or presented by the client
+    @Transient
+    @ToString.Exclude
     private String token;
 
+    // Identifies the device's session, for revoking it alone
+    @Column(nullable = false, length = 36)
+    private String sessionId;
+
     @Column(nullable = false)
     private Instant expiryDate;
 
+    // Orders a user's sessions; the oldest are evicted first
+    @Column(nullable = false)
+    private Instant createdAt;
+
     @Column(nullable = false)
     private Boolean revoked = false;
 }
\ No newline at end of file
@@ -12,8 +12,8 @@ import java.util.Set;
 
 @Entity
 @Table(name = "users", uniqueConstraints = {
-        @UniqueConstraint(columnNames = "email"),
-        @UniqueConstraint(columnNames = "username")
+        @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email"),
+        @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = "username")
 })
 @Getter
 @Setter
@@ -23,6 +23,11 @@ import java.util.Set;
 @EntityListeners(AuditingEntityListener.class)
 public class User {
 
+    // Named so registration can tell which value was taken from the violation alone;
+    // databases created with generated names need db/upgrade/002-users-unique-constraint-names.sql
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+    public static final String USERNAME_CONSTRAINT = "uk_users_username";
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private String id;
@@ -0,0 +1,64 @@
+package com.app.authservice.repo;
+
+import com.app.authservice.model.RefreshToken;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@ConditionalOnProperty(name = "auth.jwt.refresh-token.store", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaRefreshTokenStore implements RefreshTokenStore {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+
+    @Override
+    public Optional<RefreshToken> findByTokenHash(byte[] tokenHash) {
+        return refreshTokenRepository.findByTokenHash(tokenHash);
+    }
+
+    // Only the user's own rows are read, through the (user_id, session_id) index. The user's row is locked
+    // first: at READ COMMITTED two logins would otherwise not see each other's new session and both keep it
+    @Override
+    @Transactional
+    public RefreshToken addSession(RefreshToken token, int maxSessions) {
+        userRepository.lockById(token.getUser().getId());
+        RefreshToken saved = refreshTokenRepository.save(token);
+        List<String> live = refreshTokenRepository.findLiveIdsNewestFirst(token.getUser().getId(), Instant.now());
+        if (live.size() > maxSessions) {
+            refreshTokenRepository.revokeAllByIdIn(live.subList(maxSessions, live.size()));
+        }
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public void revokeSession(String userId, String sessionId) {
+        refreshTokenRepository.revokeSession(userId, sessionId);
+    }
+
+    @Override
+    @Transactional
+    public void revokeAllUserTokens(String userId) {
+        refreshTokenRepository.revokeAllUserTokens(userId);
+    }
+
+    @Override
+    public void delete(RefreshToken token) {
+        refreshTokenRepository.delete(token);
+    }
+
+    @Override
+    @Transactional
+    public int purge(Instant now, int limit) {
+        List<String> ids = refreshTokenRepository.findPurgeableIds(now, PageRequest.of(0, limit));
+        return ids.isEmpty() ? 0 : refreshTokenRepository.deleteAllByIdIn(ids);
+    }
+}
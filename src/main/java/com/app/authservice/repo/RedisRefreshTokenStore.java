@@ -0,0 +1,109 @@
+package com.app.authservice.repo;
+
+import com.app.authservice.model.RefreshToken;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps refresh tokens in Redis instead of the refresh_tokens table. Each
+ * token is a hash ({@code userId}, {@code sessionId}, {@code expiry},
+ * {@code revoked}) keyed by the token's SHA-256, with the token's remaining
+ * lifetime as TTL, so expired tokens disappear on their own.
+ * A sorted set per user holds the user's live sessions by creation time;
+ * adding a session, evicting the oldest and revoking walk it inside Lua
+ * scripts, so each is atomic.
+ *
+ * The token's user is returned as a JPA reference and only loaded if used.
+ */
+@Repository
+@ConditionalOnProperty(name = "auth.jwt.refresh-token.store", havingValue = "redis")
+@RequiredArgsConstructor
+public class RedisRefreshTokenStore implements RefreshTokenStore {
+
+    private final StringRedisTemplate redisTemplate;
+    private final UserRepository userRepository;
+
+    @Value("${auth.jwt.refresh-token.redis.key-prefix:refresh-token:}")
+    private String keyPrefix;
+
+    private final RedisScript<Long> addSessionScript =
+            RedisScript.of(new ClassPathResource("scripts/refresh_token_add_session.lua"), Long.class);
+
+    private final RedisScript<Long> revokeScript =
+            RedisScript.of(new ClassPathResource("scripts/refresh_token_revoke.lua"), Long.class);
+
+    @Override
+    public Optional<RefreshToken> findByTokenHash(byte[] tokenHash) {
+        Map<Object, Object> hash = redisTemplate.opsForHash().entries(tokenKey(encode(tokenHash)));
+        if (hash.isEmpty()) {
+            return Optional.empty();
+        }
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(tokenHash);
+        refreshToken.setUser(userRepository.getReferenceById((String) hash.get("userId")));
+        refreshToken.setSessionId((String) hash.get("sessionId"));
+        refreshToken.setExpiryDate(Instant.ofEpochMilli(Long.parseLong((String) hash.get("expiry"))));
+        refreshToken.setRevoked("1".equals(hash.get("revoked")));
+        return Optional.of(refreshToken);
+    }
+
+    @Override
+    public RefreshToken addSession(RefreshToken token, int maxSessions) {
+        String userId = token.getUser().getId();
+        String tokenHash = encode(token.getTokenHash());
+        long ttlMillis = Math.max(1, Duration.between(Instant.now(), token.getExpiryDate()).toMillis());
+        redisTemplate.execute(addSessionScript, List.of(userKey(userId), tokenKey(tokenHash)),
+                tokenKey(""), token.getSessionId() + ":" + tokenHash, userId, token.getSessionId(),
+                String.valueOf(token.getCreatedAt().toEpochMilli()),
+                String.valueOf(token.getExpiryDate().toEpochMilli()), String.valueOf(ttlMillis),
+                String.valueOf(maxSessions));
+        return token;
+    }
+
+    @Override
+    public void revokeSession(String userId, String sessionId) {
+        redisTemplate.execute(revokeScript, List.of(userKey(userId)), tokenKey(""), sessionId);
+    }
+
+    @Override
+    public void revokeAllUserTokens(String userId) {
+        redisTemplate.execute(revokeScript, List.of(userKey(userId)), tokenKey(""), "");
+    }
+
+    @Override
+    public void delete(RefreshToken token) {
+        redisTemplate.delete(tokenKey(encode(token.getTokenHash())));
+    }
+
+    // Tokens are removed by their TTL, revoked ones included
+    @Override
+    public int purge(Instant now, int limit) {
+        return 0;
+    }
+
+    // Keys carry the token's SHA-256, never the token
+    private String tokenKey(String encodedHash) {
+        return keyPrefix + "token:" + encodedHash;
+    }
+
+    private String userKey(String userId) {
+        return keyPrefix + "user:" + userId;
+    }
+
+    private static String encode(byte[] tokenHash) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(tokenHash);
+    }
+}
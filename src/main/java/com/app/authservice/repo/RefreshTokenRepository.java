@@ -2,24 +2,42 @@ package com.app.authservice.repo;
 
 import com.app.authservice.model.RefreshToken;
 import com.app.authservice.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
     Optional<RefreshToken> findByUser(User user);
 
+    @Query("SELECT rt.id FROM RefreshToken rt WHERE rt.expiryDate < ?1 OR rt.revoked = true")
+    List<String> findPurgeableIds(Instant now, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.id IN ?1")
+    int deleteAllByIdIn(Collection<String> ids);
+
+    @Query("SELECT rt.id FROM RefreshToken rt WHERE rt.user.id = ?1 AND rt.revoked = false AND rt.expiryDate > ?2 " +
+            "ORDER BY rt.createdAt DESC, rt.id")
+    List<String> findLiveIdsNewestFirst(String userId, Instant now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.id IN ?1")
+    void revokeAllByIdIn(Collection<String> ids);
+
     @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.expiryDate < ?1")
-    void deleteAllExpiredSince(Instant now);
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.user.id = ?1 AND rt.sessionId = ?2")
+    void revokeSession(String userId, String sessionId);
 
     @Modifying
-    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.user = ?1")
-    void revokeAllUserTokens(User user);
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.user.id = ?1")
+    void revokeAllUserTokens(String userId);
 }
\ No newline at end of file
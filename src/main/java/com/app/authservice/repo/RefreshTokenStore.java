@@ -0,0 +1,39 @@
+package com.app.authservice.repo;
+
+import com.app.authservice.model.RefreshToken;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Where refresh tokens are kept. Selected with
+ * {@code auth.jwt.refresh-token.store}: {@code jpa} (the refresh_tokens
+ * table, the default) or {@code redis}.
+ */
+public interface RefreshTokenStore {
+
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
+
+    /**
+     * Stores the token of a new session and, in the same atomic step, revokes
+     * the user's oldest live sessions beyond {@code maxSessions}. Concurrent
+     * calls for one user are serialized, so together they never leave more
+     * than {@code maxSessions} live.
+     */
+    RefreshToken addSession(RefreshToken token, int maxSessions);
+
+    void revokeSession(String userId, String sessionId);
+
+    void revokeAllUserTokens(String userId);
+
+    void delete(RefreshToken token);
+
+    /**
+     * Removes up to {@code limit} tokens that are revoked or expired before
+     * the given time. Callers repeat it until fewer than {@code limit} are
+     * removed, so no single statement holds locks on the whole table.
+     *
+     * @return the number of tokens removed
+     */
+    int purge(Instant now, int limit);
+}
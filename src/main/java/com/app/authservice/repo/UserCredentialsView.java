@@ -0,0 +1,18 @@
+package com.app.authservice.repo;
+
+/**
+ * Read-only row of the principal query in {@link UserRepository}: the account
+ * columns needed for authentication, repeated once per role the user holds.
+ * No entity is materialized, so nothing is tracked by the persistence context.
+ */
+public interface UserCredentialsView {
+    String getId();
+    String getUsername();
+    String getEmail();
+    String getPassword();
+    Boolean getEnabled();
+    Boolean getAccountNonLocked();
+
+    // Null when the user has no roles
+    Long getRoleId();
+}
@@ -2,17 +2,56 @@ package com.app.authservice.repo;
 
 
 import com.app.authservice.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, String> {
     Optional<User> findByEmail(String email);
+
+    // Roles and their permissions are eager anyway; the graph fetches them in the same select
+    @EntityGraph(attributePaths = {"roles", "roles.permissions"})
     Optional<User> findByUsernameOrEmail(String username, String email);
+
     Optional<User> findByUsername(String username);
     Boolean existsByEmail(String email);
     Boolean existsByUsername(String username);
     Optional<User> findByProviderAndProviderId(String provider, String providerId);
+
+    @Query("SELECT u.id FROM User u WHERE u.enabled = false OR u.accountNonLocked = false")
+    List<String> findInactiveUserIds();
+
+    // SELECT ... FOR UPDATE on the user's row, held until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u.id FROM User u WHERE u.id = ?1")
+    Optional<String> lockById(String id);
+
+    // Principal loading: one scalar statement over users and user_roles, one row per role;
+    // authorities come from RoleService
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, u.password AS password, " +
+            "u.enabled AS enabled, u.accountNonLocked AS accountNonLocked, r.id AS roleId " +
+            "FROM User u LEFT JOIN u.roles r WHERE u.id = :id")
+    List<UserCredentialsView> findCredentialsById(@Param("id") String id);
+
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, u.password AS password, " +
+            "u.enabled AS enabled, u.accountNonLocked AS accountNonLocked, r.id AS roleId " +
+            "FROM User u LEFT JOIN u.roles r WHERE u.username = :name OR u.email = :name")
+    List<UserCredentialsView> findCredentialsByUsernameOrEmail(@Param("name") String usernameOrEmail);
+
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, u.password AS password, " +
+            "u.enabled AS enabled, u.accountNonLocked AS accountNonLocked, r.id AS roleId " +
+            "FROM User u LEFT JOIN u.roles r WHERE u.email = :email")
+    List<UserCredentialsView> findCredentialsByEmail(@Param("email") String email);
+
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    List<String> findUsernamesIn(@Param("usernames") Collection<String> usernames);
 }
\ No newline at end of file
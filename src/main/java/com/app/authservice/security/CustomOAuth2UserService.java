@@ -3,8 +3,11 @@ package com.app.authservice.security;
 
 import com.app.authservice.model.User;
 import com.app.authservice.repo.UserRepository;
+import com.app.authservice.service.AvailabilityService;
+import com.app.authservice.service.RoleService;
+import com.app.authservice.util.ConstraintViolationUtils;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
 import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
@@ -12,15 +15,26 @@ import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 @RequiredArgsConstructor
 public class CustomOAuth2UserService extends DefaultOAuth2UserService {
 
+    // Each retry re-reads the taken usernames, so more than a few means something else is wrong
+    private static final int MAX_USERNAME_ATTEMPTS = 3;
+
+    // Suffixes looked up per attempt; if all are taken a random one is used instead
+    static final int CANDIDATE_SUFFIXES = 20;
+
     private final UserRepository userRepository;
+    private final RoleService roleService;
+    private final AvailabilityService availabilityService;
 
     @Override
     public OAuth2User loadUser(OAuth2UserRequest oAuth2UserRequest)
@@ -43,31 +57,46 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
 
         updateExistingUser(user, oAuth2UserInfo);
 
-        Set<SimpleGrantedAuthority> authorities = new HashSet<>();
-        user.getRoles().forEach(role -> {
-            authorities.add(new SimpleGrantedAuthority("ROLE_" + role.getName()));
-            role.getPermissions().forEach(permission ->
-                    authorities.add(new SimpleGrantedAuthority(permission.getName())));
-        });
-
-        return UserPrincipal.create(user, attributes, authorities);
+        return UserPrincipal.create(user, attributes, roleService.getAuthorities(user.getRoles()));
     }
 
-    private User registerNewUser(OAuth2UserInfo oAuth2UserInfo, String provider) {
-        User user = new User();
-        user.setProvider(User.AuthProvider.valueOf(provider.toUpperCase()));
-        user.setProviderId(oAuth2UserInfo.getId());
-        user.setEmail(oAuth2UserInfo.getEmail());
-        user.setEmailVerified(true);
-        user.setUsername(generateUsername(oAuth2UserInfo));
-        user.setFirstName(oAuth2UserInfo.getFirstName());
-        user.setLastName(oAuth2UserInfo.getLastName());
-        user.setProfileImageUrl(oAuth2UserInfo.getImageUrl());
-
-        // Set default role (USER)
-        // You can fetch default role from database here
-
-        return userRepository.save(user);
+    /**
+     * Creates the user with the first free username derived from the email.
+     * If a concurrent sign-in takes that username first, the insert fails on
+     * the unique constraint and the next free one is picked; if it was the
+     * same person signing in twice, the user it created is returned.
+     */
+    User registerNewUser(OAuth2UserInfo oAuth2UserInfo, String provider) {
+        String baseUsername = oAuth2UserInfo.getEmail().split("@")[0];
+
+        for (int attempt = 1; ; attempt++) {
+            User user = new User();
+            user.setProvider(User.AuthProvider.valueOf(provider.toUpperCase()));
+            user.setProviderId(oAuth2UserInfo.getId());
+            user.setEmail(oAuth2UserInfo.getEmail());
+            user.setEmailVerified(true);
+            user.setUsername(generateUsername(baseUsername));
+            user.setFirstName(oAuth2UserInfo.getFirstName());
+            user.setLastName(oAuth2UserInfo.getLastName());
+            user.setProfileImageUrl(oAuth2UserInfo.getImageUrl());
+
+            // Set default role (USER)
+            // You can fetch default role from database here
+
+            try {
+                user = userRepository.saveAndFlush(user);
+                availabilityService.markTaken(user.getUsername());
+                return user;
+            } catch (DataIntegrityViolationException ex) {
+                if (ConstraintViolationUtils.isViolationOf(ex, User.EMAIL_CONSTRAINT)) {
+                    return userRepository.findByEmail(oAuth2UserInfo.getEmail()).orElseThrow(() -> ex);
+                }
+                if (attempt >= MAX_USERNAME_ATTEMPTS
+                        || !ConstraintViolationUtils.isViolationOf(ex, User.USERNAME_CONSTRAINT)) {
+                    throw ex;
+                }
+            }
+        }
     }
 
     private void updateExistingUser(User user, OAuth2UserInfo oAuth2UserInfo) {
@@ -77,16 +106,22 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
         }
     }
 
-    private String generateUsername(OAuth2UserInfo oAuth2UserInfo) {
-        String baseUsername = oAuth2UserInfo.getEmail().split("@")[0];
-        String username = baseUsername;
-        int counter = 1;
+    // One indexed lookup of the base and its first numeric suffixes, then the lowest free one
+    String generateUsername(String baseUsername) {
+        List<String> candidates = new ArrayList<>(CANDIDATE_SUFFIXES + 1);
+        candidates.add(baseUsername);
+        for (int suffix = 1; suffix <= CANDIDATE_SUFFIXES; suffix++) {
+            candidates.add(baseUsername + suffix);
+        }
 
-        while (userRepository.existsByUsername(username)) {
-            username = baseUsername + counter;
-            counter++;
+        Set<String> taken = new HashSet<>(userRepository.findUsernamesIn(candidates));
+        for (String candidate : candidates) {
+            if (!taken.contains(candidate)) {
+                return candidate;
+            }
         }
 
-        return username;
+        // A crowded base; a clash with an existing name is caught by the unique constraint and retried
+        return baseUsername + ThreadLocalRandom.current().nextInt(CANDIDATE_SUFFIXES + 1, 1_000_000);
     }
-}
\ No newline at end of file
+}
@@ -1,14 +1,19 @@
 package com.app.authservice.security;
 
-import com.app.authservice.model.User;
+import com.app.authservice.repo.UserCredentialsView;
 import com.app.authservice.repo.UserRepository;
+import com.app.authservice.service.RoleService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -16,36 +21,83 @@ import org.springframework.transaction.annotation.Transactional;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final RoleService roleService;
+    private final MeterRegistry meterRegistry;
+
+    // Concurrent misses for the same id or name share one database load
+    private SingleFlight<String, UserPrincipal> loads;
+
+    @PostConstruct
+    public void init() {
+        loads = new SingleFlight<>("principals", meterRegistry);
+    }
 
+    // Principals are read through a scalar projection: no managed User/Role/Permission graph, no transaction
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
-        // Let people login with either username or email
-        User user = userRepository.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail)
-                .orElseThrow(() ->
-                        new UsernameNotFoundException("User not found with username or email: " + usernameOrEmail)
-                );
+        UserPrincipal cached = principalCache.getByName(usernameOrEmail);
+        if (cached != null) {
+            return cached;
+        }
+
+        return loads.load("name:" + usernameOrEmail, () -> {
+            // Let people login with either username or email
+            long generation = principalCache.generation();
+            List<UserCredentialsView> rows = userRepository.findCredentialsByUsernameOrEmail(usernameOrEmail);
+            if (rows.isEmpty()) {
+                throw new UsernameNotFoundException("User not found with username or email: " + usernameOrEmail);
+            }
 
-        validateUserAccount(user);
+            validateUserAccount(rows.get(0));
 
-        log.debug("Loaded user by username/email: {}", usernameOrEmail);
-        return UserPrincipal.create(user);
+            log.debug("Loaded user by username/email: {}", usernameOrEmail);
+            return cache(rows, generation);
+        });
     }
 
-    @Transactional
     public UserDetails loadUserById(String id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() ->
-                        new UsernameNotFoundException("User not found with id: " + id)
-                );
+        UserPrincipal cached = principalCache.getById(id);
+        if (cached != null) {
+            return cached;
+        }
 
-        validateUserAccount(user);
+        return loads.load("id:" + id, () -> {
+            long generation = principalCache.generation();
+            List<UserCredentialsView> rows = userRepository.findCredentialsById(id);
+            if (rows.isEmpty()) {
+                throw new UsernameNotFoundException("User not found with id: " + id);
+            }
 
-        log.debug("Loaded user by id: {}", id);
-        return UserPrincipal.create(user);
+            validateUserAccount(rows.get(0));
+
+            log.debug("Loaded user by id: {}", id);
+            return cache(rows, generation);
+        });
     }
 
-    private void validateUserAccount(User user) {
+    // One row per role; all rows of the first user carry the same account columns
+    private UserPrincipal cache(List<UserCredentialsView> rows, long generation) {
+        UserCredentialsView account = rows.get(0);
+        List<Long> roleIds = new ArrayList<>(rows.size());
+        for (UserCredentialsView row : rows) {
+            if (row.getRoleId() != null && account.getId().equals(row.getId())) {
+                roleIds.add(row.getRoleId());
+            }
+        }
+
+        UserPrincipal principal = new UserPrincipal(
+                account.getId(),
+                account.getEmail(),
+                account.getUsername(),
+                account.getPassword(),
+                roleService.getAuthoritiesByRoleIds(roleIds)
+        );
+        principalCache.put(principal, generation);
+        return principal;
+    }
+
+    private void validateUserAccount(UserCredentialsView user) {
         if (Boolean.FALSE.equals(user.getEnabled())) {
             throw new UsernameNotFoundException("User account is disabled");
         }
@@ -65,16 +117,23 @@ public class CustomUserDetailsService implements UserDetailsService {
         // }
     }
 
-    @Transactional
     public UserDetails loadUserByEmail(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() ->
-                        new UsernameNotFoundException("User not found with email: " + email)
-                );
+        UserPrincipal cached = principalCache.getByName(email);
+        if (cached != null) {
+            return cached;
+        }
+
+        return loads.load("email:" + email, () -> {
+            long generation = principalCache.generation();
+            List<UserCredentialsView> rows = userRepository.findCredentialsByEmail(email);
+            if (rows.isEmpty()) {
+                throw new UsernameNotFoundException("User not found with email: " + email);
+            }
 
-        validateUserAccount(user);
+            validateUserAccount(rows.get(0));
 
-        log.debug("Loaded user by email: {}", email);
-        return UserPrincipal.create(user);
+            log.debug("Loaded user by email: {}", email);
+            return cache(rows, generation);
+        });
     }
 }
\ No newline at end of file
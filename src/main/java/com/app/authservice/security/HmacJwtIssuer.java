@@ -0,0 +1,265 @@
+package com.app.authservice.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import javax.crypto.Mac;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.util.Arrays;
+
+/**
+ * Issues HMAC-signed access tokens without going through the JJWT builder.
+ *
+ * The header is encoded once per signing key, the claims are written with a
+ * fixed layout straight into a per-thread buffer, and each thread keeps its
+ * own initialised {@link Mac}. The output is byte-for-byte identical to
+ * what {@link JwtTokenProvider} produces with the builder: same header and
+ * claim order, same JSON escaping as Jackson, unpadded base64url.
+ */
+final class HmacJwtIssuer {
+
+    private static final byte[] BASE64URL =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private final ThreadLocal<State> state = ThreadLocal.withInitial(State::new);
+
+    private volatile EncodedHeader header;
+
+    static boolean supports(JwtKeyRing.SigningKey key) {
+        return key.algorithm().isHmac();
+    }
+
+    String issue(JwtKeyRing.SigningKey key, UserPrincipal principal, long nowMillis, long expirationMillis) {
+        State state = this.state.get();
+        Buffer json = state.json;
+        Buffer out = state.out;
+        json.reset();
+        out.reset();
+
+        // Same claim order as the builder: sub, username, email, roles, iat, exp; null claims are omitted
+        json.put('{');
+        boolean first = true;
+        if (principal.getId() != null && !principal.getId().isBlank()) {
+            json.field("sub", true).string(principal.getId());
+            first = false;
+        }
+        if (principal.getUsername() != null) {
+            json.field("username", first).string(principal.getUsername());
+            first = false;
+        }
+        if (principal.getEmail() != null) {
+            json.field("email", first).string(principal.getEmail());
+            first = false;
+        }
+        json.field("roles", first).put('[');
+        boolean firstRole = true;
+        for (GrantedAuthority authority : principal.getAuthorities()) {
+            if (!firstRole) {
+                json.put(',');
+            }
+            json.string(authority.getAuthority());
+            firstRole = false;
+        }
+        json.put(']');
+        json.field("iat", false).number(nowMillis / 1000);
+        json.field("exp", false).number((nowMillis + expirationMillis) / 1000);
+        json.put('}');
+
+        out.put(header(key).prefix);
+        out.base64(json.bytes, json.size);
+
+        Mac mac = state.mac(key);
+        mac.update(out.bytes, 0, out.size);
+        try {
+            mac.doFinal(state.signature, 0);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Could not sign JWT", ex);
+        }
+
+        out.put('.');
+        out.base64(state.signature, mac.getMacLength());
+        return new String(out.bytes, 0, out.size, StandardCharsets.US_ASCII);
+    }
+
+    private EncodedHeader header(JwtKeyRing.SigningKey key) {
+        EncodedHeader current = header;
+        if (current == null || current.key != key) {
+            Buffer json = new Buffer(64);
+            json.put('{')
+                    .field("kid", true).string(key.kid())
+                    .field("alg", false).string(key.algorithm().getValue())
+                    .put('}');
+
+            Buffer encoded = new Buffer(128);
+            encoded.base64(json.bytes, json.size);
+            encoded.put('.');
+            current = new EncodedHeader(key, Arrays.copyOf(encoded.bytes, encoded.size));
+            header = current;
+        }
+        return current;
+    }
+
+    private record EncodedHeader(JwtKeyRing.SigningKey key, byte[] prefix) {
+    }
+
+    private static final class State {
+        private final Buffer json = new Buffer(512);
+        private final Buffer out = new Buffer(1024);
+        private final byte[] signature = new byte[64];
+        private Key macKey;
+        private Mac mac;
+
+        private Mac mac(JwtKeyRing.SigningKey key) {
+            if (key.signingKey() != macKey) {
+                try {
+                    Mac instance = Mac.getInstance(key.algorithm().getJcaName());
+                    instance.init(key.signingKey());
+                    mac = instance;
+                    macKey = key.signingKey();
+                } catch (GeneralSecurityException ex) {
+                    throw new IllegalStateException("Could not initialise " + key.algorithm(), ex);
+                }
+            }
+            return mac;
+        }
+    }
+
+    private static final class Buffer {
+        private byte[] bytes;
+        private int size;
+
+        private Buffer(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        private void reset() {
+            size = 0;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+
+        private Buffer put(char c) {
+            ensure(1);
+            bytes[size++] = (byte) c;
+            return this;
+        }
+
+        private Buffer put(byte[] src) {
+            ensure(src.length);
+            System.arraycopy(src, 0, bytes, size, src.length);
+            size += src.length;
+            return this;
+        }
+
+        private Buffer field(String name, boolean first) {
+            if (!first) {
+                put(',');
+            }
+            return string(name).put(':');
+        }
+
+        private Buffer number(long value) {
+            ensure(20);
+            if (value < 0) {
+                bytes[size++] = '-';
+                value = -value;
+            }
+            int start = size;
+            do {
+                bytes[size++] = (byte) ('0' + (value % 10));
+                value /= 10;
+            } while (value > 0);
+            for (int i = start, j = size - 1; i < j; i++, j--) {
+                byte tmp = bytes[i];
+                bytes[i] = bytes[j];
+                bytes[j] = tmp;
+            }
+            return this;
+        }
+
+        // JSON string with Jackson's default escaping, encoded as UTF-8
+        private Buffer string(String value) {
+            int length = value.length();
+            ensure(length * 6 + 2);
+            bytes[size++] = '"';
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    if (c == '"' || c == '\\') {
+                        bytes[size++] = '\\';
+                        bytes[size++] = (byte) c;
+                    } else if (c < 0x20) {
+                        escapeControl(c);
+                    } else {
+                        bytes[size++] = (byte) c;
+                    }
+                } else if (c < 0x800) {
+                    bytes[size++] = (byte) (0xC0 | (c >> 6));
+                    bytes[size++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    // Jackson's UTF-8 generator escapes each half of a surrogate pair
+                    bytes[size++] = '\\';
+                    bytes[size++] = 'u';
+                    bytes[size++] = HEX[c >> 12];
+                    bytes[size++] = HEX[(c >> 8) & 0xF];
+                    bytes[size++] = HEX[(c >> 4) & 0xF];
+                    bytes[size++] = HEX[c & 0xF];
+                } else {
+                    bytes[size++] = (byte) (0xE0 | (c >> 12));
+                    bytes[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    bytes[size++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            bytes[size++] = '"';
+            return this;
+        }
+
+        private void escapeControl(char c) {
+            bytes[size++] = '\\';
+            switch (c) {
+                case '\b' -> bytes[size++] = 'b';
+                case '\t' -> bytes[size++] = 't';
+                case '\n' -> bytes[size++] = 'n';
+                case '\f' -> bytes[size++] = 'f';
+                case '\r' -> bytes[size++] = 'r';
+                default -> {
+                    bytes[size++] = 'u';
+                    bytes[size++] = '0';
+                    bytes[size++] = '0';
+                    bytes[size++] = HEX[c >> 4];
+                    bytes[size++] = HEX[c & 0xF];
+                }
+            }
+        }
+
+        // Unpadded base64url, as used by JWS compact serialization
+        private void base64(byte[] src, int length) {
+            ensure((length + 2) / 3 * 4);
+            int i = 0;
+            for (; i + 2 < length; i += 3) {
+                int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8 | (src[i + 2] & 0xFF);
+                bytes[size++] = BASE64URL[bits >>> 18];
+                bytes[size++] = BASE64URL[(bits >>> 12) & 0x3F];
+                bytes[size++] = BASE64URL[(bits >>> 6) & 0x3F];
+                bytes[size++] = BASE64URL[bits & 0x3F];
+            }
+            int remaining = length - i;
+            if (remaining == 1) {
+                int bits = (src[i] & 0xFF) << 16;
+                bytes[size++] = BASE64URL[bits >>> 18];
+                bytes[size++] = BASE64URL[(bits >>> 12) & 0x3F];
+            } else if (remaining == 2) {
+                int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8;
+                bytes[size++] = BASE64URL[bits >>> 18];
+                bytes[size++] = BASE64URL[(bits >>> 12) & 0x3F];
+                bytes[size++] = BASE64URL[(bits >>> 6) & 0x3F];
+            }
+        }
+    }
+}
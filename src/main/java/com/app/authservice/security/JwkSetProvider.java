@@ -0,0 +1,92 @@
+package com.app.authservice.security;
+
+import com.nimbusds.jose.Algorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes the public halves of the asymmetric keys in {@link JwtKeyRing} as
+ * a JWK Set. The document and its ETag are rebuilt only when the key ring
+ * changes, so serving it costs no serialization per request. HMAC keys are
+ * never published.
+ */
+@Component
+@RequiredArgsConstructor
+public class JwkSetProvider {
+
+    private final JwtKeyRing keyRing;
+
+    private volatile Document document;
+
+    public Document getDocument() {
+        Collection<JwtKeyRing.SigningKey> keys = keyRing.verificationKeys();
+        Document current = document;
+
+        if (current == null || current.source() != keys) {
+            current = build(keys);
+            document = current;
+        }
+        return current;
+    }
+
+    private static Document build(Collection<JwtKeyRing.SigningKey> keys) {
+        List<JWK> jwks = new ArrayList<>();
+        for (JwtKeyRing.SigningKey key : keys) {
+            if (key.isAsymmetric()) {
+                jwks.add(toJwk(key));
+            }
+        }
+
+        JWKSet jwkSet = new JWKSet(jwks);
+        return new Document(keys, jwkSet.toJSONObject(true), etag(jwkSet.toString(true)));
+    }
+
+    private static JWK toJwk(JwtKeyRing.SigningKey key) {
+        Algorithm algorithm = new Algorithm(key.algorithm().getValue());
+
+        if (key.verificationKey() instanceof RSAPublicKey rsaKey) {
+            return new RSAKey.Builder(rsaKey)
+                    .keyID(key.kid())
+                    .algorithm(algorithm)
+                    .keyUse(KeyUse.SIGNATURE)
+                    .build();
+        }
+
+        ECPublicKey ecKey = (ECPublicKey) key.verificationKey();
+        return new ECKey.Builder(Curve.forECParameterSpec(ecKey.getParams()), ecKey)
+                .keyID(key.kid())
+                .algorithm(algorithm)
+                .keyUse(KeyUse.SIGNATURE)
+                .build();
+    }
+
+    private static String etag(String json) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(json.getBytes(StandardCharsets.UTF_8));
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + "\"";
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    public record Document(Collection<JwtKeyRing.SigningKey> source, Map<String, Object> json, String etag) {
+    }
+}
@@ -6,6 +6,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,14 +17,24 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Set;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Set<String> UNAUTHENTICATED_AUTH_PATHS = Set.of(
+            "/api/v1/auth/login",
+            "/api/v1/auth/register",
+            "/api/v1/auth/refresh-token");
+
     private final JwtTokenProvider tokenProvider;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+
+    @Value("${auth.jwt.stateless.enabled:false}")
+    private boolean statelessAuthentication;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -34,10 +45,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String userId = tokenProvider.getUserIdFromToken(jwt);
+            VerifiedToken token = StringUtils.hasText(jwt) ? tokenProvider.verify(jwt) : null;
 
-                UserDetails userDetails = userDetailsService.loadUserById(userId);
+            if (token != null && token.isValid()) {
+                UserDetails userDetails = loadUserDetails(token);
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails, null, userDetails.getAuthorities());
@@ -58,7 +69,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private String getJwtFromRequest(HttpServletRequest request) {
+    private UserDetails loadUserDetails(VerifiedToken token) {
+        // Tokens without the identity claims (issued by older versions) still go to the database
+        if (!statelessAuthentication || token.getUsername() == null) {
+            return userDetailsService.loadUserById(token.getSubject());
+        }
+
+        if (tokenRevocationService.isRevoked(token.getSubject())) {
+            throw new UsernameNotFoundException("User account is disabled or locked");
+        }
+
+        return UserPrincipal.create(token);
+    }
+
+    String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
 
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -92,7 +116,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         return path.startsWith("/oauth2/") ||
                 path.startsWith("/login") ||
                 path.startsWith("/actuator/health") ||
-                path.startsWith("/api/v1/auth/") &&
-                        (path.contains("/login") || path.contains("/register") || path.contains("/refresh-token"));
+                path.startsWith("/.well-known/") ||
+                UNAUTHENTICATED_AUTH_PATHS.contains(path);
     }
 }
\ No newline at end of file
@@ -0,0 +1,189 @@
+package com.app.authservice.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the JWT key material used by {@link JwtTokenProvider}.
+ *
+ * Keys are built once and published as an immutable snapshot, so signing and
+ * verification never rebuild key objects or parsers per request. Several keys
+ * can be active for verification at the same time; the one used for a token
+ * is picked by its {@code kid} header. Rotating swaps the snapshot atomically,
+ * so it is safe to call while requests are in flight.
+ */
+@Component
+@Slf4j
+public class JwtKeyRing {
+
+    @Value("${auth.jwt.secret}")
+    private String jwtSecret;
+
+    @Value("${auth.jwt.key-id:primary}")
+    private String jwtKeyId;
+
+    // HS derives an HMAC algorithm from the secret; RS256 or ES256 sign with a private key
+    @Value("${auth.jwt.algorithm:HS}")
+    private String jwtAlgorithm;
+
+    @Value("${auth.jwt.private-key:}")
+    private String privateKeyPem;
+
+    @Value("${auth.jwt.public-key:}")
+    private String publicKeyPem;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    // The parser is immutable and thread-safe; key lookup goes through the current snapshot
+    private final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                @Override
+                public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                    return resolve(header.getKeyId()).verificationKey();
+                }
+            })
+            .build();
+
+    @PostConstruct
+    public void init() {
+        if (!StringUtils.hasText(jwtAlgorithm) || jwtAlgorithm.startsWith("HS")) {
+            rotate(jwtKeyId, jwtSecret.getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        SignatureAlgorithm algorithm = SignatureAlgorithm.forName(jwtAlgorithm);
+        if (JwtKeys.hasPem(privateKeyPem) && JwtKeys.hasPem(publicKeyPem)) {
+            rotate(jwtKeyId, JwtKeys.loadKeyPair(algorithm, privateKeyPem, publicKeyPem), algorithm);
+        } else {
+            // Tokens signed with a generated key cannot be verified by other nodes or after a restart
+            log.warn("No {} key pair configured, generating an ephemeral one", algorithm);
+            rotate(jwtKeyId, JwtKeys.generateKeyPair(algorithm), algorithm);
+        }
+    }
+
+    public SigningKey activeKey() {
+        return snapshot.get().active();
+    }
+
+    public JwtParser parser() {
+        return parser;
+    }
+
+    public Set<String> keyIds() {
+        return snapshot.get().keys().keySet();
+    }
+
+    // Keys of the current snapshot; the collection is replaced, never mutated, on rotation
+    public Collection<SigningKey> verificationKeys() {
+        return snapshot.get().keys().values();
+    }
+
+    public boolean hasKey(String kid) {
+        return kid != null && snapshot.get().keys().containsKey(kid);
+    }
+
+    /**
+     * Adds an HMAC key and makes it the signing key. Keys added earlier stay
+     * available for verification until they are retired.
+     */
+    public void rotate(String kid, byte[] secret) {
+        Key key = Keys.hmacShaKeyFor(secret);
+        install(new SigningKey(kid, SignatureAlgorithm.forSigningKey(key), key, key), true);
+    }
+
+    /**
+     * Adds an asymmetric key pair and makes it the signing key. Only the
+     * public half is used for verification and published in the JWKS.
+     */
+    public void rotate(String kid, KeyPair keyPair, SignatureAlgorithm algorithm) {
+        if (!algorithm.isRsa() && !algorithm.isEllipticCurve()) {
+            throw new IllegalArgumentException("Not an asymmetric JWT algorithm: " + algorithm);
+        }
+        install(new SigningKey(kid, algorithm, keyPair.getPrivate(), keyPair.getPublic()), true);
+    }
+
+    /**
+     * Adds a key that is only used to verify tokens, e.g. a key that another
+     * node has already started signing with.
+     */
+    public void addVerificationKey(String kid, byte[] secret) {
+        Key key = Keys.hmacShaKeyFor(secret);
+        install(new SigningKey(kid, SignatureAlgorithm.forSigningKey(key), key, key), false);
+    }
+
+    public synchronized void retire(String kid) {
+        Snapshot current = snapshot.get();
+        if (current.active().kid().equals(kid)) {
+            throw new IllegalStateException("Cannot retire the active signing key: " + kid);
+        }
+
+        Map<String, SigningKey> keys = new LinkedHashMap<>(current.keys());
+        if (keys.remove(kid) != null) {
+            snapshot.set(new Snapshot(current.active(), Collections.unmodifiableMap(keys)));
+            log.info("Retired JWT key: {}", kid);
+        }
+    }
+
+    synchronized void install(SigningKey key, boolean makeActive) {
+        if (!StringUtils.hasText(key.kid())) {
+            throw new IllegalArgumentException("JWT key id must not be empty");
+        }
+
+        Snapshot current = snapshot.get();
+        Map<String, SigningKey> keys = current == null
+                ? new LinkedHashMap<>()
+                : new LinkedHashMap<>(current.keys());
+        keys.put(key.kid(), key);
+
+        SigningKey active = makeActive || current == null ? key : current.active();
+        snapshot.set(new Snapshot(active, Collections.unmodifiableMap(keys)));
+        log.info("Installed JWT key: {} (alg: {}, active: {})", key.kid(), key.algorithm(), active == key);
+    }
+
+    SigningKey resolve(String kid) {
+        Snapshot current = snapshot.get();
+
+        // Tokens issued before key ids were introduced carry no kid header
+        if (kid == null) {
+            return current.active();
+        }
+
+        SigningKey key = current.keys().get(kid);
+        if (key == null) {
+            throw new SignatureException("Unknown JWT key id: " + kid);
+        }
+        return key;
+    }
+
+    public record SigningKey(String kid, SignatureAlgorithm algorithm, Key signingKey, Key verificationKey) {
+
+        public boolean isAsymmetric() {
+            return verificationKey instanceof PublicKey;
+        }
+    }
+
+    private record Snapshot(SigningKey active, Map<String, SigningKey> keys) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.app.authservice.security;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.util.StringUtils;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+
+/**
+ * Loads asymmetric JWT signing keys from PEM text (PKCS#8 private key and
+ * X.509 public key), or generates a throwaway pair for single-node setups.
+ */
+final class JwtKeys {
+
+    private JwtKeys() {
+    }
+
+    static KeyPair loadKeyPair(SignatureAlgorithm algorithm, String privateKeyPem, String publicKeyPem) {
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance(keyFactoryAlgorithm(algorithm));
+            PrivateKey privateKey = keyFactory.generatePrivate(
+                    new PKCS8EncodedKeySpec(decodePem(privateKeyPem)));
+            PublicKey publicKey = keyFactory.generatePublic(
+                    new X509EncodedKeySpec(decodePem(publicKeyPem)));
+            return new KeyPair(publicKey, privateKey);
+        } catch (GeneralSecurityException | IllegalArgumentException ex) {
+            throw new IllegalStateException("Could not load " + algorithm + " key pair", ex);
+        }
+    }
+
+    static KeyPair generateKeyPair(SignatureAlgorithm algorithm) {
+        return Keys.keyPairFor(algorithm);
+    }
+
+    static boolean hasPem(String pem) {
+        return StringUtils.hasText(pem);
+    }
+
+    private static String keyFactoryAlgorithm(SignatureAlgorithm algorithm) {
+        if (algorithm.isRsa()) {
+            return "RSA";
+        }
+        if (algorithm.isEllipticCurve()) {
+            return "EC";
+        }
+        throw new IllegalArgumentException("Not an asymmetric JWT algorithm: " + algorithm);
+    }
+
+    private static byte[] decodePem(String pem) {
+        String base64 = pem
+                .replaceAll("-----BEGIN [A-Z ]+-----", "")
+                .replaceAll("-----END [A-Z ]+-----", "")
+                .replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+}
@@ -0,0 +1,287 @@
+package com.app.authservice.security;
+
+import com.app.authservice.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Throttles failed logins per account and per client IP, before any user is
+ * loaded or password hashed.
+ *
+ * Each key has a sliding-window failure counter (the current and previous
+ * fixed windows, weighted by overlap) held in an immutable snapshot and
+ * updated with CAS, so there are no locks on the login path. An attempt is
+ * counted when it starts, in the same CAS that checks the limit, and taken
+ * back if the login succeeds. After
+ * {@code delay-after} failures an account must also wait after each new
+ * failure, starting at {@code base-delay} and doubling every time. Keys idle for two windows are evicted
+ * and their number is capped, so memory stays bounded under spraying.
+ *
+ * Rejections are published as {@code login.throttle.rejected{scope=account|ip}},
+ * recorded failures as {@code login.throttle.failures} and tracked keys as
+ * {@code login.throttle.keys}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LoginThrottle {
+
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+
+    @Value("${auth.login-throttle.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth.login-throttle.window:15m}")
+    private Duration window;
+
+    @Value("${auth.login-throttle.max-failures-per-account:10}")
+    private int maxFailuresPerAccount;
+
+    @Value("${auth.login-throttle.max-failures-per-ip:100}")
+    private int maxFailuresPerIp;
+
+    @Value("${auth.login-throttle.delay-after:3}")
+    private int delayAfter;
+
+    @Value("${auth.login-throttle.base-delay:1s}")
+    private Duration baseDelay;
+
+    @Value("${auth.login-throttle.max-delay:30s}")
+    private Duration maxDelay;
+
+    @Value("${auth.login-throttle.max-keys:100000}")
+    private long maxKeys;
+
+    private Cache<String, SlidingWindow> windows;
+    private Counter accountRejections;
+    private Counter ipRejections;
+    private Counter failures;
+
+    @PostConstruct
+    public void init() {
+        windows = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(window.multipliedBy(2))
+                .build();
+        accountRejections = Counter.builder("login.throttle.rejected").tag("scope", "account").register(meterRegistry);
+        ipRejections = Counter.builder("login.throttle.rejected").tag("scope", "ip").register(meterRegistry);
+        failures = Counter.builder("login.throttle.failures").register(meterRegistry);
+        Gauge.builder("login.throttle.keys", windows, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    /**
+     * Starts a login attempt. The attempt is counted as a failure for the
+     * account and the IP before the password is verified, so parallel
+     * attempts cannot all slip under the limit; {@link #succeeded} and
+     * {@link #abandoned} take it back again.
+     *
+     * @throws TooManyRequestsException if the account or the IP is over its
+     *         limit, or the account is still serving its progressive delay
+     */
+    public Attempt begin(String usernameOrEmail, String clientIp) {
+        if (!enabled) {
+            return Attempt.UNTHROTTLED;
+        }
+
+        long now = clock.millis();
+        String accountKey = accountKey(usernameOrEmail);
+        SlidingWindow.Reservation ip = reserve(windows.get(ipKey(clientIp), key -> new SlidingWindow(window.toMillis())),
+                now, maxFailuresPerIp, false, ipRejections, "Too many failed login attempts from this address");
+        SlidingWindow.Reservation account;
+        try {
+            account = reserve(windows.get(accountKey, key -> new SlidingWindow(window.toMillis())),
+                    now, maxFailuresPerAccount, true, accountRejections, "Too many failed login attempts for this account");
+        } catch (TooManyRequestsException ex) {
+            ip.release();
+            throw ex;
+        }
+        return new Attempt(accountKey, account, ip);
+    }
+
+    // The attempt stays counted; this only publishes the failure
+    public void failed(Attempt attempt) {
+        if (attempt != Attempt.UNTHROTTLED) {
+            failures.increment();
+        }
+    }
+
+    // A successful login clears the account's history; the IP keeps its earlier failures
+    public void succeeded(Attempt attempt) {
+        if (attempt != Attempt.UNTHROTTLED) {
+            attempt.ip.release();
+            windows.invalidate(attempt.accountKey);
+        }
+    }
+
+    // For attempts that ended without the credentials being judged, e.g. an overloaded password encoder
+    public void abandoned(Attempt attempt) {
+        if (attempt != Attempt.UNTHROTTLED) {
+            attempt.ip.release();
+            attempt.account.release();
+        }
+    }
+
+    // Checks the limit and counts the attempt in one CAS, so concurrent attempts see each other
+    private SlidingWindow.Reservation reserve(SlidingWindow window, long now, int limit, boolean progressive,
+                                              Counter rejections, String message) {
+        while (true) {
+            SlidingWindow.State state = window.state();
+            double failures = window.failures(state, now);
+            if (failures >= limit) {
+                rejections.increment();
+                throw new TooManyRequestsException(message, window.retryAfterSeconds(state, now, limit));
+            }
+
+            long waitMillis = progressive ? state.lastFailureAt() + delayMillis(failures) - now : 0;
+            if (waitMillis > 0) {
+                rejections.increment();
+                throw new TooManyRequestsException("Login attempted too soon after a failure",
+                        Math.max(1, (waitMillis + 999) / 1000));
+            }
+
+            SlidingWindow.Reservation reservation = window.tryIncrement(state, now);
+            if (reservation != null) {
+                return reservation;
+            }
+        }
+    }
+
+    private long delayMillis(double accountFailures) {
+        int excess = (int) Math.floor(accountFailures) - delayAfter;
+        if (excess <= 0) {
+            return 0;
+        }
+        long delay = baseDelay.toMillis() << Math.min(excess - 1, 20);
+        return Math.min(delay, maxDelay.toMillis());
+    }
+
+    private static String accountKey(String usernameOrEmail) {
+        return "account:" + (usernameOrEmail == null ? "" : usernameOrEmail.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private static String ipKey(String clientIp) {
+        return "ip:" + clientIp;
+    }
+
+    /**
+     * A login attempt counted against its account and IP by {@link #begin}.
+     */
+    public static final class Attempt {
+
+        static final Attempt UNTHROTTLED = new Attempt(null, null, null);
+
+        private final String accountKey;
+        private final SlidingWindow.Reservation account;
+        private final SlidingWindow.Reservation ip;
+
+        private Attempt(String accountKey, SlidingWindow.Reservation account, SlidingWindow.Reservation ip) {
+            this.accountKey = accountKey;
+            this.account = account;
+            this.ip = ip;
+        }
+    }
+
+    /**
+     * Sliding-window counter approximated from two fixed windows: the
+     * estimate is the current window's count plus the previous window's
+     * count scaled by how much of it still overlaps the sliding window.
+     */
+    static final class SlidingWindow {
+
+        private final long windowMillis;
+        private final AtomicReference<State> state;
+
+        SlidingWindow(long windowMillis) {
+            this.windowMillis = windowMillis;
+            this.state = new AtomicReference<>(new State(0, 0, 0, 0));
+        }
+
+        State state() {
+            return state.get();
+        }
+
+        // Counts one failure unless the window changed since the snapshot was taken
+        Reservation tryIncrement(State snapshot, long now) {
+            long index = now / windowMillis;
+            State rolled = snapshot.rollTo(index);
+            if (!state.compareAndSet(snapshot, new State(index, rolled.current() + 1, rolled.previous(), now))) {
+                return null;
+            }
+            return new Reservation(this, index, now, snapshot.lastFailureAt());
+        }
+
+        double failures(State snapshot, long now) {
+            long index = now / windowMillis;
+            State rolled = snapshot.rollTo(index);
+            double previousWeight = 1.0 - (double) (now % windowMillis) / windowMillis;
+            return rolled.current() + rolled.previous() * previousWeight;
+        }
+
+        // Time until the estimate drops below the limit, assuming no new failures
+        long retryAfterSeconds(State snapshot, long now, int limit) {
+            long index = now / windowMillis;
+            State rolled = snapshot.rollTo(index);
+            long untilWindowEnd = windowMillis - now % windowMillis;
+            long millis;
+            if (rolled.current() >= limit) {
+                // The current window only starts to fade once it becomes the previous one
+                millis = untilWindowEnd + windowMillis * (rolled.current() - limit + 1) / rolled.current();
+            } else {
+                double needed = (rolled.current() + rolled.previous() - limit + 1) / (double) rolled.previous();
+                millis = (long) Math.ceil(windowMillis * Math.max(0, needed)) - (windowMillis - untilWindowEnd);
+            }
+            return Math.max(1, (Math.max(millis, 0) + 999) / 1000);
+        }
+
+        // Takes back a counted failure, wherever the windows have rolled to since
+        private void release(Reservation reservation) {
+            State current;
+            State next;
+            do {
+                current = state.get();
+                long lastFailureAt = current.lastFailureAt() == reservation.at()
+                        ? reservation.previousLastFailureAt()
+                        : current.lastFailureAt();
+                if (current.index() == reservation.index() && current.current() > 0) {
+                    next = new State(current.index(), current.current() - 1, current.previous(), lastFailureAt);
+                } else if (current.index() == reservation.index() + 1 && current.previous() > 0) {
+                    next = new State(current.index(), current.current(), current.previous() - 1, lastFailureAt);
+                } else {
+                    return;
+                }
+            } while (!state.compareAndSet(current, next));
+        }
+
+        record Reservation(SlidingWindow window, long index, long at, long previousLastFailureAt) {
+
+            void release() {
+                window.release(this);
+            }
+        }
+
+        record State(long index, long current, long previous, long lastFailureAt) {
+
+            State rollTo(long newIndex) {
+                if (newIndex == index) {
+                    return this;
+                }
+                long previous = newIndex == index + 1 ? current : 0;
+                return new State(newIndex, 0, previous, lastFailureAt);
+            }
+        }
+    }
+}
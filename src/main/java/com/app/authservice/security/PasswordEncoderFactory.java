@@ -0,0 +1,110 @@
+package com.app.authservice.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds the application's {@link PasswordEncoder}: a
+ * {@link DelegatingPasswordEncoder} that writes {@code {id}}-prefixed hashes
+ * with the configured algorithm and still verifies every supported one,
+ * including the unprefixed BCrypt hashes stored before prefixes were used.
+ * {@link PasswordEncoder#upgradeEncoding(String)} reports hashes made with
+ * another algorithm or a lower BCrypt cost, so they can be re-hashed on login.
+ *
+ * With {@code auth.password.bcrypt.strength} left at 0, the BCrypt cost is
+ * calibrated at startup: the highest cost whose hash still fits in
+ * {@code auth.password.target-latency} on this machine.
+ */
+@Component
+@Slf4j
+public class PasswordEncoderFactory {
+
+    // OWASP floor; calibration never goes below it, however slow the machine
+    static final int MIN_BCRYPT_STRENGTH = 10;
+    static final int MAX_BCRYPT_STRENGTH = 16;
+
+    private static final String BCRYPT = "bcrypt";
+    private static final String PBKDF2 = "pbkdf2";
+
+    @Value("${auth.password.algorithm:bcrypt}")
+    private String algorithm;
+
+    // 0 calibrates against the target latency; pin it in a cluster so all nodes agree
+    @Value("${auth.password.bcrypt.strength:0}")
+    private int bcryptStrength;
+
+    @Value("${auth.password.target-latency:250ms}")
+    private Duration targetLatency;
+
+    // Not stored in the hash, so it must never change once PBKDF2 hashes exist
+    @Value("${auth.password.pbkdf2.iterations:310000}")
+    private int pbkdf2Iterations;
+
+    // Calibrated once, so every encoder this factory creates hashes with the same cost
+    private int calibratedStrength;
+
+    public PasswordEncoder create() {
+        if (!BCRYPT.equals(algorithm) && !PBKDF2.equals(algorithm)) {
+            throw new IllegalStateException("Unsupported password algorithm: " + algorithm);
+        }
+
+        int strength = bcryptStrength > 0 ? bcryptStrength : calibratedStrength();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, bcrypt);
+        encoders.put(PBKDF2, new Pbkdf2PasswordEncoder("", 16, pbkdf2Iterations,
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256));
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        // Hashes written before the {id} prefix was introduced are plain BCrypt
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        log.info("Password encoder: {} (bcrypt strength: {})", algorithm, strength);
+        return encoder;
+    }
+
+    private synchronized int calibratedStrength() {
+        if (calibratedStrength == 0) {
+            calibratedStrength = calibrateBcrypt();
+        }
+        return calibratedStrength;
+    }
+
+    int calibrateBcrypt() {
+        long target = targetLatency.toNanos();
+        int strength = MIN_BCRYPT_STRENGTH;
+        long elapsed = timeBcrypt(strength);
+
+        // Each step doubles the work, so stop once the next one would overshoot
+        while (strength < MAX_BCRYPT_STRENGTH && elapsed * 2 <= target) {
+            strength++;
+            elapsed = timeBcrypt(strength);
+        }
+
+        log.info("Calibrated bcrypt strength {} ({} ms per hash, target {} ms)",
+                strength, elapsed / 1_000_000, targetLatency.toMillis());
+        return strength;
+    }
+
+    // Best of two runs, the first of which also warms up the JIT
+    private static long timeBcrypt(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration-password");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,122 @@
+package com.app.authservice.security;
+
+import com.app.authservice.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing and verification on a small, fixed pool with a
+ * bounded queue, so a burst of logins cannot tie up every request thread.
+ * When the queue is full, or a caller has waited longer than
+ * {@code auth.password-hashing.max-wait}, the caller gets a
+ * {@link ServiceOverloadedException} straight away instead of piling up.
+ *
+ * Queue depth and pool usage are published as {@code executor.*{name="password-hashing"}},
+ * hash time as {@code password.hashing{operation}}, time spent queued as
+ * {@code password.hashing.wait} and rejections as {@code password.hashing.rejected}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PasswordHashingExecutor {
+
+    private final MeterRegistry meterRegistry;
+
+    // 0 means one thread per available processor
+    @Value("${auth.password-hashing.threads:0}")
+    private int threads;
+
+    @Value("${auth.password-hashing.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${auth.password-hashing.max-wait:3s}")
+    private Duration maxWait;
+
+    private ThreadPoolExecutor executor;
+    private Timer waitTimer;
+    private Counter rejected;
+
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        new ExecutorServiceMetrics(executor, "password-hashing", Tags.empty()).bindTo(meterRegistry);
+        waitTimer = Timer.builder("password.hashing.wait").register(meterRegistry);
+        rejected = Counter.builder("password.hashing.rejected").register(meterRegistry);
+        log.info("Password hashing executor started (threads: {}, queue: {}, max wait: {})",
+                poolSize, queueCapacity, maxWait);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public <T> T execute(String operation, Supplier<T> task) {
+        Timer hashTimer = Timer.builder("password.hashing")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        long submittedAt = System.nanoTime();
+
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return hashTimer.record(task);
+            });
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new ServiceOverloadedException("Too many concurrent password operations, try again shortly", ex);
+        }
+
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            // Drop the work if it has not started; nobody is waiting for it any more
+            future.cancel(false);
+            executor.purge();
+            rejected.increment();
+            throw new ServiceOverloadedException("Password operation timed out, try again shortly", ex);
+        } catch (InterruptedException ex) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Interrupted while waiting for a password operation", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password operation failed", ex.getCause());
+        }
+    }
+}
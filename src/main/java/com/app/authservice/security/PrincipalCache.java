@@ -0,0 +1,139 @@
+package com.app.authservice.security;
+
+import com.app.authservice.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, TTL-based cache of the principals built by
+ * {@link CustomUserDetailsService}. Each principal is stored once, under its
+ * id; its login names (username and email) only map to the id, so dropping
+ * the id evicts every way of reaching it. Entries are dropped by
+ * {@link PrincipalCacheInvalidator} whenever the user or one of its roles
+ * changes; the TTL only bounds changes made outside Hibernate (bulk JPQL,
+ * manual SQL).
+ *
+ * Every invalidation advances a generation counter. A loader reads the
+ * generation before it queries and {@link #put} discards its result if an
+ * invalidation happened in between, so a load racing an update cannot
+ * re-cache the old row.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PrincipalCache {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${auth.principal-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth.principal-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${auth.principal-cache.ttl:5m}")
+    private Duration ttl;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private Cache<String, UserPrincipal> byId;
+    private Cache<String, String> idsByName;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+
+        byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        idsByName = Caffeine.newBuilder()
+                .maximumSize(maxSize * 2)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "principals.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByName, "principals.by-name");
+        log.info("Principal cache enabled (max size: {}, ttl: {})", maxSize, ttl);
+    }
+
+    public UserPrincipal getById(String id) {
+        return byId != null ? byId.getIfPresent(id) : null;
+    }
+
+    public UserPrincipal getByName(String usernameOrEmail) {
+        if (byId == null) {
+            return null;
+        }
+
+        String id = idsByName.getIfPresent(usernameOrEmail);
+        UserPrincipal principal = id != null ? byId.getIfPresent(id) : null;
+        // The name may since have been given up by this user
+        if (principal == null || !(usernameOrEmail.equals(principal.getUsername())
+                || usernameOrEmail.equals(principal.getEmail()))) {
+            return null;
+        }
+        return principal;
+    }
+
+    // Read by loaders before they query; see put(UserPrincipal, long)
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Caches a principal loaded from the database, unless an invalidation
+     * happened since the loader read {@code loadedAt} from {@link #generation()}.
+     */
+    public void put(UserPrincipal principal, long loadedAt) {
+        if (byId == null) {
+            return;
+        }
+
+        // Invalidations advance the generation before removing, so the check and the put cannot straddle one
+        UserPrincipal cached = byId.asMap().compute(principal.getId(),
+                (id, current) -> generation.get() == loadedAt ? principal : current);
+        if (cached != principal) {
+            return;
+        }
+
+        idsByName.put(principal.getUsername(), principal.getId());
+        if (principal.getEmail() != null) {
+            idsByName.put(principal.getEmail(), principal.getId());
+        }
+    }
+
+    public void invalidate(User user) {
+        invalidate(user.getId());
+    }
+
+    public void invalidate(String userId) {
+        if (byId == null || userId == null) {
+            return;
+        }
+
+        generation.incrementAndGet();
+        byId.invalidate(userId);
+    }
+
+    public void invalidateAll() {
+        if (byId != null) {
+            generation.incrementAndGet();
+            byId.invalidateAll();
+            idsByName.invalidateAll();
+        }
+    }
+}
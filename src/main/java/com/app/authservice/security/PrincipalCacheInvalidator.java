@@ -0,0 +1,121 @@
+package com.app.authservice.security;
+
+import com.app.authservice.model.Permission;
+import com.app.authservice.model.Role;
+import com.app.authservice.model.User;
+import com.app.authservice.service.RoleService;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hibernate event listener that keeps {@link PrincipalCache} in step with the
+ * database. Entity updates and deletes are handled after commit, and
+ * collection changes are deferred to the end of their transaction, so the
+ * eviction always follows the new rows becoming visible; loads that read the
+ * old rows before that are kept out of the cache by its generation check.
+ * Role and permission changes affect every user holding them, so they clear
+ * the whole cache and mark the role snapshot in {@link RoleService} for
+ * reload.
+ *
+ * Committed user updates also keep {@link TokenRevocationService} current,
+ * so disabling or locking an account revokes its tokens on this node at once.
+ */
+@Component
+@RequiredArgsConstructor
+public class PrincipalCacheInvalidator implements PostCommitUpdateEventListener, PostCommitDeleteEventListener,
+        PostCollectionUpdateEventListener, PostCollectionRemoveEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final PrincipalCache principalCache;
+    private final RoleService roleService;
+    private final TokenRevocationService tokenRevocationService;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof User user) {
+            if (Boolean.FALSE.equals(user.getEnabled()) || Boolean.FALSE.equals(user.getAccountNonLocked())) {
+                tokenRevocationService.revokeUser(user.getId());
+            } else if (tokenRevocationService.isRevoked(user.getId())) {
+                tokenRevocationService.restoreUser(user.getId());
+            }
+        }
+        evict(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Nothing was committed, so the cached principal is still current
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        evict(event.getEntity());
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    // Role membership lives in join tables, which only raise collection events
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        evictOwner(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        evictOwner(event);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> type = persister.getMappedClass();
+        return User.class.equals(type) || Role.class.equals(type) || Permission.class.equals(type);
+    }
+
+    // Collection events fire at flush, before commit; evicting then would let a load cache the old rows again
+    private void evictOwner(AbstractCollectionEvent event) {
+        Object owner = event.getAffectedOwnerOrNull();
+        event.getSession().getActionQueue().registerProcess((success, session) -> {
+            if (success) {
+                evict(owner);
+            }
+        });
+    }
+
+    private void evict(Object entity) {
+        if (entity instanceof User user) {
+            principalCache.invalidate(user);
+        } else if (entity instanceof Role || entity instanceof Permission) {
+            roleService.markStale();
+            principalCache.invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.app.authservice.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Applies {@link TokenBucketRateLimiter} to the unauthenticated, expensive
+ * endpoints: login, register, refresh-token, availability and the OAuth2 flows. Each
+ * endpoint group has its own bucket per client IP. Runs ahead of the Spring
+ * Security filter chain so rejected requests cost nothing else.
+ *
+ * The client IP is {@link HttpServletRequest#getRemoteAddr()}, which Tomcat
+ * resolves from {@code X-Forwarded-For} for requests that come through a
+ * trusted proxy ({@code server.forward-headers-strategy: native}); a header
+ * sent by anyone else is ignored, so clients cannot pick their own bucket.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final TokenBucketRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    @Value("${auth.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || group(request.getServletPath()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String group = group(request.getServletPath());
+        long waitMillis = rateLimiter.tryAcquire(group + ":" + request.getRemoteAddr());
+        if (waitMillis == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        log.warn("Rate limit exceeded for {} from {}", group, request.getRemoteAddr());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((waitMillis + 999) / 1000));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("error", "Too Many Requests");
+        body.put("message", "Rate limit exceeded, try again later");
+        body.put("path", request.getServletPath());
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    static String group(String path) {
+        return switch (path) {
+            case "/api/v1/auth/login" -> "login";
+            case "/api/v1/auth/register" -> "register";
+            case "/api/v1/auth/refresh-token" -> "refresh-token";
+            case "/api/v1/auth/availability" -> "availability";
+            default -> path.startsWith("/oauth2/") || path.startsWith("/login/oauth2/") ? "oauth2" : null;
+        };
+    }
+}
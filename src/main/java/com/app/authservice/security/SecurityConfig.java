@@ -11,7 +11,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -20,6 +19,8 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import java.util.Arrays;
 
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
@@ -32,6 +33,8 @@ public class SecurityConfig {
     private final OAuth2AuthenticationSuccessHandler oAuth2AuthenticationSuccessHandler;
     private final OAuth2AuthenticationFailureHandler oAuth2AuthenticationFailureHandler;
     private final HttpCookieOAuth2AuthorizationRequestRepository cookieAuthorizationRequestRepository;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final PasswordEncoderFactory passwordEncoderFactory;
 
     @Bean
     public AuthenticationManager authenticationManager(
@@ -41,7 +44,8 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        // BCrypt runs on its own bounded pool, never on the request thread
+        return new BoundedPasswordEncoder(passwordEncoderFactory.create(), passwordHashingExecutor);
     }
 
     @Bean
@@ -54,18 +58,24 @@ public class SecurityConfig {
                 .sessionManagement(session ->
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Path patterns cannot continue after "/**", so the static resource globs are Ant matchers
+                        .requestMatchers(
+                                antMatcher("/**/*.png"),
+                                antMatcher("/**/*.gif"),
+                                antMatcher("/**/*.svg"),
+                                antMatcher("/**/*.jpg"),
+                                antMatcher("/**/*.html"),
+                                antMatcher("/**/*.css"),
+                                antMatcher("/**/*.js")
+                        ).permitAll()
+                        .requestMatchers("/api/v1/auth/introspect", "/api/v1/auth/me", "/api/v1/auth/logout")
+                        .authenticated()
                         .requestMatchers(
                                 "/",
                                 "/favicon.ico",
-                                "/**/*.png",
-                                "/**/*.gif",
-                                "/**/*.svg",
-                                "/**/*.jpg",
-                                "/**/*.html",
-                                "/**/*.css",
-                                "/**/*.js",
                                 "/error",
                                 "/api/v1/auth/**",
+                                "/.well-known/jwks.json",
                                 "/oauth2/**",
                                 "/login/oauth2/**",
                                 "/actuator/health",
@@ -0,0 +1,77 @@
+package com.app.authservice.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent loads of the same key into one. The first caller runs
+ * the loader; callers arriving while it is still running wait for and share
+ * its result, or its exception. Nothing is kept once the load finishes, so
+ * this only dedupes work that overlaps in time and never serves stale values.
+ *
+ * Published as {@code single_flight.calls{name, result=loaded|coalesced}} and
+ * {@code single_flight.in_flight{name}}.
+ */
+class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter loaded;
+    private final Counter coalesced;
+
+    SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.loaded = Counter.builder("single_flight.calls")
+                .tag("name", name)
+                .tag("result", "loaded")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("single_flight.calls")
+                .tag("name", name)
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("single_flight.in_flight", inFlight, Map::size)
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        loaded.increment();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    // Rethrow the leader's exception as is, so waiters see e.g. UsernameNotFoundException
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
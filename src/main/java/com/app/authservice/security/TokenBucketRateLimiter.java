@@ -0,0 +1,145 @@
+package com.app.authservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cluster-wide token bucket rate limiter. Buckets live in Redis and are
+ * refilled and drawn from by one Lua script, so concurrent requests on any
+ * node see a single, atomic bucket per key.
+ *
+ * If Redis cannot be reached the limiter falls back to node-local buckets
+ * with the same capacity and rate, and retries Redis after
+ * {@code auth.rate-limit.redis-retry-interval}; rate limiting degrades to per
+ * node instead of failing open or failing requests.
+ *
+ * Decisions are published as {@code rate_limit.requests{result, backend}}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenBucketRateLimiter {
+
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+
+    @Value("${auth.rate-limit.capacity:20}")
+    private int capacity;
+
+    @Value("${auth.rate-limit.refill-per-second:1.0}")
+    private double refillPerSecond;
+
+    @Value("${auth.rate-limit.key-prefix:rate-limit:}")
+    private String keyPrefix;
+
+    @Value("${auth.rate-limit.redis-retry-interval:30s}")
+    private Duration redisRetryInterval;
+
+    private final RedisScript<Long> script = RedisScript.of(new ClassPathResource("scripts/token_bucket.lua"), Long.class);
+
+    // Redis is skipped until this time after a failure
+    private volatile long redisDownUntil;
+
+    private Cache<String, LocalBucket> localBuckets;
+
+    @PostConstruct
+    public void init() {
+        localBuckets = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(Duration.ofMillis((long) Math.ceil(capacity / refillPerSecond * 1000)))
+                .build();
+    }
+
+    /**
+     * Takes one token from the bucket for the given key.
+     *
+     * @return 0 if the request is allowed, otherwise the milliseconds until a token is available
+     */
+    public long tryAcquire(String key) {
+        long now = clock.millis();
+        if (now >= redisDownUntil) {
+            try {
+                long waitMillis = acquireFromRedis(keyPrefix + key);
+                count(waitMillis, "redis");
+                return waitMillis;
+            } catch (DataAccessException ex) {
+                redisDownUntil = now + redisRetryInterval.toMillis();
+                log.warn("Redis rate limiter unavailable, using local buckets for {}: {}",
+                        redisRetryInterval, ex.getMessage());
+            }
+        }
+
+        long waitMillis = localBuckets.get(key, k -> new LocalBucket(capacity, refillPerSecond / 1000, now))
+                .tryAcquire(now);
+        count(waitMillis, "local");
+        return waitMillis;
+    }
+
+    private long acquireFromRedis(String key) {
+        Long waitMillis = redisTemplate.execute(script, List.of(key),
+                String.valueOf(capacity), String.valueOf(refillPerSecond));
+        if (waitMillis == null) {
+            throw new IllegalStateException("Rate limit script returned no result");
+        }
+        return waitMillis;
+    }
+
+    private void count(long waitMillis, String backend) {
+        Counter.builder("rate_limit.requests")
+                .tag("result", waitMillis == 0 ? "allowed" : "rejected")
+                .tag("backend", backend)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Node-local token bucket with the same arithmetic as the Lua script;
+     * state is swapped with CAS.
+     */
+    static final class LocalBucket {
+
+        private final double capacity;
+        private final double ratePerMilli;
+        private final AtomicReference<State> state;
+
+        LocalBucket(double capacity, double ratePerMilli, long now) {
+            this.capacity = capacity;
+            this.ratePerMilli = ratePerMilli;
+            this.state = new AtomicReference<>(new State(capacity, now));
+        }
+
+        long tryAcquire(long now) {
+            while (true) {
+                State current = state.get();
+                double tokens = Math.min(capacity,
+                        current.tokens() + Math.max(0, now - current.timestamp()) * ratePerMilli);
+                if (tokens < 1) {
+                    return Math.max(1, (long) Math.ceil((1 - tokens) / ratePerMilli));
+                }
+                if (state.compareAndSet(current, new State(tokens - 1, Math.max(now, current.timestamp())))) {
+                    return 0;
+                }
+            }
+        }
+
+        private record State(double tokens, long timestamp) {
+        }
+    }
+}
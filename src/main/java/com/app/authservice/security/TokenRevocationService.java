@@ -0,0 +1,95 @@
+package com.app.authservice.security;
+
+import com.app.authservice.repo.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the ids of disabled and locked accounts in memory so stateless
+ * authentication can reject their tokens without loading the user.
+ * The set is reloaded from the database on a fixed schedule, independent of
+ * request volume. Accounts disabled or locked through JPA on this node are
+ * revoked as soon as the change commits (see
+ * {@link PrincipalCacheInvalidator}); other nodes pick them up with their
+ * next reload.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationService {
+
+    private final UserRepository userRepository;
+
+    private volatile Set<String> revokedUserIds = Set.of();
+
+    // Revocations and restores made while a reload is running, replayed over its result; guarded by this
+    private final Map<String, Boolean> changedDuringLoad = new HashMap<>();
+    private boolean loading;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${auth.jwt.stateless.revocation-refresh-ms:60000}",
+            initialDelayString = "${auth.jwt.stateless.revocation-refresh-ms:60000}")
+    public void refresh() {
+        synchronized (this) {
+            changedDuringLoad.clear();
+            loading = true;
+        }
+
+        Set<String> ids;
+        try {
+            ids = new HashSet<>(userRepository.findInactiveUserIds());
+        } catch (RuntimeException ex) {
+            synchronized (this) {
+                loading = false;
+                changedDuringLoad.clear();
+            }
+            throw ex;
+        }
+
+        synchronized (this) {
+            loading = false;
+            // The query may have run before these changes committed
+            changedDuringLoad.forEach((userId, revoked) -> {
+                if (revoked) {
+                    ids.add(userId);
+                } else {
+                    ids.remove(userId);
+                }
+            });
+            changedDuringLoad.clear();
+            revokedUserIds = Set.copyOf(ids);
+        }
+        log.debug("Loaded {} revoked user ids", ids.size());
+    }
+
+    public boolean isRevoked(String userId) {
+        return revokedUserIds.contains(userId);
+    }
+
+    public synchronized void revokeUser(String userId) {
+        Set<String> ids = new HashSet<>(revokedUserIds);
+        ids.add(userId);
+        revokedUserIds = Set.copyOf(ids);
+        if (loading) {
+            changedDuringLoad.put(userId, true);
+        }
+    }
+
+    public synchronized void restoreUser(String userId) {
+        Set<String> ids = new HashSet<>(revokedUserIds);
+        ids.remove(userId);
+        revokedUserIds = Set.copyOf(ids);
+        if (loading) {
+            changedDuringLoad.put(userId, false);
+        }
+    }
+}
@@ -48,6 +48,17 @@ public class UserPrincipal implements UserDetails, OAuth2User {
         this.attributes = attributes;
     }
 
+    // Factory method for callers that already hold the (shared) authorities of the user's roles
+    public static UserPrincipal create(User user, Collection<? extends GrantedAuthority> authorities) {
+        return new UserPrincipal(
+                user.getId(),
+                user.getEmail(),
+                user.getUsername(),
+                user.getPassword(),
+                authorities
+        );
+    }
+
     // Factory method to create UserPrincipal from User entity
     public static UserPrincipal create(User user) {
         List<GrantedAuthority> authorities = user.getRoles().stream()
@@ -71,10 +82,25 @@ public class UserPrincipal implements UserDetails, OAuth2User {
         );
     }
 
+    // Factory method for stateless authentication: everything comes from the verified claims
+    public static UserPrincipal create(VerifiedToken token) {
+        List<GrantedAuthority> authorities = token.getRoles().stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+
+        return new UserPrincipal(
+                token.getSubject(),
+                token.getEmail(),
+                token.getUsername(),
+                null,
+                authorities
+        );
+    }
+
     // Factory method for OAuth2
     public static UserPrincipal create(User user, Map<String, Object> attributes,
                                        Collection<? extends GrantedAuthority> authorities) {
-        UserPrincipal userPrincipal = UserPrincipal.create(user);
+        UserPrincipal userPrincipal = UserPrincipal.create(user, authorities);
         userPrincipal.setAttributes(attributes);
         return userPrincipal;
     }
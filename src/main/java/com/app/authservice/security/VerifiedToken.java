@@ -0,0 +1,72 @@
+package com.app.authservice.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Result of verifying a JWT once: either the claims the service relies on,
+ * or the reason the token was rejected. Instances are immutable, so they can
+ * be shared between threads and cached.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class VerifiedToken {
+
+    private final String keyId;
+    private final String subject;
+    private final String username;
+    private final String email;
+    private final List<String> roles;
+    private final Instant issuedAt;
+    private final Instant expiresAt;
+    private final FailureReason failureReason;
+
+    public enum FailureReason {
+        MALFORMED, EXPIRED, UNSUPPORTED, INVALID_SIGNATURE, EMPTY
+    }
+
+    public static VerifiedToken valid(String keyId, Claims claims) {
+        return new VerifiedToken(
+                keyId,
+                claims.getSubject(),
+                claims.get("username", String.class),
+                claims.get("email", String.class),
+                toRoles(claims.get("roles")),
+                toInstant(claims.getIssuedAt()),
+                toInstant(claims.getExpiration()),
+                null
+        );
+    }
+
+    public static VerifiedToken invalid(FailureReason reason) {
+        return new VerifiedToken(null, null, null, null, List.of(), null, null, reason);
+    }
+
+    public boolean isValid() {
+        return failureReason == null;
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+
+    private static List<String> toRoles(Object claim) {
+        if (claim instanceof Collection<?> values) {
+            return values.stream()
+                    .map(String::valueOf)
+                    .toList();
+        }
+        return List.of();
+    }
+
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
+    }
+}
@@ -0,0 +1,123 @@
+package com.app.authservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Optional cache of successfully verified tokens, keyed by the SHA-256 digest
+ * of the raw token so the token itself is never kept in memory. Entries expire
+ * at the token's own {@code exp}, which means a hit never extends a token's
+ * lifetime. Hit, miss and eviction counts are published as
+ * {@code cache.*{cache="jwt.verified"}} metrics.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VerifiedTokenCache {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${auth.jwt.verified-cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${auth.jwt.verified-cache.max-size:10000}")
+    private long maxSize;
+
+    private Cache<ByteBuffer, VerifiedToken> cache;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified");
+        log.info("Verified token cache enabled (max size: {})", maxSize);
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    public VerifiedToken get(String token) {
+        if (cache == null) {
+            return null;
+        }
+
+        VerifiedToken verified = cache.getIfPresent(digest(token));
+
+        // Caffeine expires lazily, so re-check exp rather than trust the entry blindly
+        if (verified != null && verified.isExpired(Instant.now())) {
+            return null;
+        }
+        return verified;
+    }
+
+    public void put(String token, VerifiedToken verified) {
+        if (cache == null || !verified.isValid() || verified.getExpiresAt() == null) {
+            return;
+        }
+        cache.put(digest(token), verified);
+    }
+
+    public void invalidate(String token) {
+        if (cache != null) {
+            cache.invalidate(digest(token));
+        }
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private static class TokenExpiry implements Expiry<ByteBuffer, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, VerifiedToken value, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), value.getExpiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, VerifiedToken value,
+                                      long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, VerifiedToken value,
+                                    long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -7,24 +7,29 @@ import com.app.authservice.dto.response.AuthResponse;
 import com.app.authservice.dto.response.UserResponse;
 import com.app.authservice.exception.AuthenticationException;
 import com.app.authservice.exception.BadRequestException;
+import com.app.authservice.exception.EmailAlreadyExistsException;
 import com.app.authservice.exception.ResourceNotFoundException;
 import com.app.authservice.exception.TokenRefreshException;
+import com.app.authservice.exception.UsernameAlreadyExistsException;
 import com.app.authservice.model.RefreshToken;
 import com.app.authservice.model.User;
 import com.app.authservice.repo.UserRepository;
 import com.app.authservice.security.JwtTokenProvider;
 import com.app.authservice.security.UserPrincipal;
+import com.app.authservice.util.ConstraintViolationUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.Instant;
 import java.time.LocalDateTime;
 
 @Service
@@ -32,14 +37,27 @@ import java.time.LocalDateTime;
 @Slf4j
 public class AuthService {
 
-    private final AuthenticationManager authenticationManager;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider tokenProvider;
     private final RefreshTokenService refreshTokenService;
     private final RoleService roleService;
-
-    @Transactional
+    private final LoginActivityRecorder loginActivityRecorder;
+    private final AvailabilityService availabilityService;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Loads the user once and verifies the password against that row, instead
+     * of letting the {@link AuthenticationManager} look the user up again.
+     * A login costs four statements: the user select, the lock on the user's
+     * row that serializes session creation, the refresh token insert and the
+     * read of the user's live sessions.
+     *
+     * The password is verified, and re-hashed if outdated, before any
+     * transaction starts, so a login waiting for the hashing executor holds
+     * neither a pooled connection nor the row lock. Only the session and a
+     * hash upgrade are written in one short transaction.
+     */
     public AuthResponse authenticateUser(LoginRequest loginRequest) {
         User user = userRepository.findByUsernameOrEmail(
                 loginRequest.getUsernameOrEmail(),
@@ -55,33 +73,46 @@ public class AuthService {
             throw new BadRequestException("Account is locked");
         }
 
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        user.getUsername(),
-                        loginRequest.getPassword()
-                )
-        );
+        if (user.getPassword() == null || !passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
+            throw new BadCredentialsException("Bad credentials");
+        }
+
+        // The raw password is only available here, so outdated hashes are replaced on a successful login
+        String upgradedPassword = passwordEncoder.upgradeEncoding(user.getPassword())
+                ? passwordEncoder.encode(loginRequest.getPassword())
+                : null;
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String accessToken = tokenProvider.generateToken(authentication);
-        RefreshToken refreshToken = refreshTokenService.createRefreshToken(user.getId());
+        UserPrincipal principal = UserPrincipal.create(user, roleService.getAuthorities(user.getRoles()));
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+                principal, null, principal.getAuthorities());
 
-        user.setLastLoginAt(LocalDateTime.from(Instant.now()));
-        userRepository.save(user);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        String accessToken = tokenProvider.generateToken(principal);
+        RefreshToken refreshToken = transactionTemplate.execute(status -> {
+            RefreshToken created = refreshTokenService.createRefreshToken(user);
+            if (upgradedPassword != null) {
+                user.setPassword(upgradedPassword);
+                userRepository.save(user);
+                log.info("Upgraded password hash for user: {}", user.getId());
+            }
+            return created;
+        });
+
+        // Written behind in batches, the login transaction does not touch the users row
+        loginActivityRecorder.recordLogin(user.getId(), LocalDateTime.now());
 
         return buildAuthResponse(accessToken, refreshToken.getToken(), user);
     }
 
-    @Transactional
+    /**
+     * Inserts the user and lets the unique constraints on {@code users} decide
+     * whether the email or username is taken, so registration is one round
+     * trip and concurrent sign-ups with the same value get a 409 instead of a
+     * 500. The new user is signed in from the saved row, without verifying
+     * the password hash that was just computed. The hash is computed before
+     * the transaction starts.
+     */
     public AuthResponse registerUser(RegisterRequest registerRequest) {
-        if (userRepository.existsByEmail(registerRequest.getEmail())) {
-            throw new BadRequestException("Email is already in use");
-        }
-
-        if (userRepository.existsByUsername(registerRequest.getUsername())) {
-            throw new BadRequestException("Username is already taken");
-        }
-
         User user = User.builder()
                 .email(registerRequest.getEmail())
                 .username(registerRequest.getUsername())
@@ -94,23 +125,41 @@ public class AuthService {
                 .accountNonLocked(true)
                 .build();
 
-        // Assign default USER role
-        user.addRole(roleService.getUserRole());
+        // Assign default USER role; only the owning side is set so the role's users are not loaded
+        user.getRoles().add(roleService.getUserRole());
 
-        user = userRepository.save(user);
+        AuthResponse response;
+        try {
+            response = transactionTemplate.execute(status -> {
+                User saved = userRepository.saveAndFlush(user);
 
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        registerRequest.getUsername(),
-                        registerRequest.getPassword()
-                )
-        );
+                UserPrincipal principal = UserPrincipal.create(saved, roleService.getAuthorities(saved.getRoles()));
+                Authentication authentication = new UsernamePasswordAuthenticationToken(
+                        principal, null, principal.getAuthorities());
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String accessToken = tokenProvider.generateToken(authentication);
-        RefreshToken refreshToken = refreshTokenService.createRefreshToken(user.getId());
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                String accessToken = tokenProvider.generateToken(principal);
+                RefreshToken refreshToken = refreshTokenService.createRefreshToken(saved);
 
-        return buildAuthResponse(accessToken, refreshToken.getToken(), user);
+                return buildAuthResponse(accessToken, refreshToken.getToken(), saved);
+            });
+        } catch (DataIntegrityViolationException ex) {
+            throw alreadyExists(ex, registerRequest);
+        }
+        availabilityService.markTaken(user.getUsername());
+
+        return response;
+    }
+
+    // Maps a unique constraint violation on users to the value that was taken
+    private RuntimeException alreadyExists(DataIntegrityViolationException ex, RegisterRequest registerRequest) {
+        if (ConstraintViolationUtils.isViolationOf(ex, User.EMAIL_CONSTRAINT)) {
+            return new EmailAlreadyExistsException(registerRequest.getEmail());
+        }
+        if (ConstraintViolationUtils.isViolationOf(ex, User.USERNAME_CONSTRAINT)) {
+            return new UsernameAlreadyExistsException(registerRequest.getUsername());
+        }
+        return ex;
     }
 
     @Transactional
@@ -122,7 +171,8 @@ public class AuthService {
                 .map(RefreshToken::getUser)
                 .map(user -> {
                     // ✅ Correct token generation
-                    String accessToken = tokenProvider.generateToken(user);
+                    String accessToken = tokenProvider.generateToken(
+                            UserPrincipal.create(user, roleService.getAuthorities(user.getRoles())));
                     return buildAuthResponse(accessToken, requestRefreshToken, user);
                 })
                 .orElseThrow(() -> new TokenRefreshException(
@@ -132,11 +182,22 @@ public class AuthService {
     }
 
 
+    // Signs the user out on every device
     @Transactional
     public void logoutUser(String userId) {
         refreshTokenService.deleteByUserId(userId);
     }
 
+    // Signs the user out on the device holding the refresh token. Unknown tokens and other users' tokens
+    // get the same answer, so the endpoint cannot be used to probe for live tokens
+    @Transactional
+    public void logoutSession(String userId, String refreshToken) {
+        RefreshToken token = refreshTokenService.findByToken(refreshToken)
+                .filter(found -> found.getUser().getId().equals(userId))
+                .orElseThrow(() -> new BadRequestException("Refresh token is not a session of the current user"));
+        refreshTokenService.revokeSession(userId, token.getSessionId());
+    }
+
     public User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
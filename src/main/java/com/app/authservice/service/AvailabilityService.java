@@ -0,0 +1,146 @@
+package com.app.authservice.service;
+
+import com.app.authservice.repo.UserRepository;
+import com.app.authservice.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Answers "is this username still free?" for the registration form. Emails
+ * are deliberately not checked: an unauthenticated "is this email taken?"
+ * tells anyone who has an account here.
+ *
+ * Every taken username is kept in a Bloom filter, so the common case, a name
+ * nobody has, is answered without touching the database. A filter hit may be
+ * a false positive and is confirmed with a query. The filter is rebuilt from
+ * the users table on a schedule, reading it in keyset-paged chunks, which
+ * picks up users registered on other nodes; until then those only make a name
+ * look free, and registering it still fails on the unique constraint.
+ *
+ * Answers are published as {@code availability.checks{result=filtered|queried}}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilityService {
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${auth.availability.bloom-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth.availability.bloom-filter.expected-users:1000000}")
+    private long expectedUsers;
+
+    @Value("${auth.availability.bloom-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${auth.availability.bloom-filter.rebuild-batch-size:10000}")
+    private int rebuildBatchSize;
+
+    // Null until the first build completes; everything goes to the database meanwhile
+    private volatile BloomFilter taken;
+
+    // Names marked while a rebuild scans the table, replayed into its filter; guarded by this
+    private final List<String> takenDuringRebuild = new ArrayList<>();
+    private boolean rebuilding;
+
+    private Counter filtered;
+    private Counter queried;
+
+    @PostConstruct
+    public void init() {
+        filtered = Counter.builder("availability.checks").tag("result", "filtered").register(meterRegistry);
+        queried = Counter.builder("availability.checks").tag("result", "queried").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${auth.availability.bloom-filter.rebuild-interval-ms:600000}",
+            initialDelayString = "${auth.availability.bloom-filter.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        synchronized (this) {
+            takenDuringRebuild.clear();
+            rebuilding = true;
+        }
+
+        BloomFilter filter = new BloomFilter(expectedUsers, falsePositiveRate);
+        try {
+            scan(filter);
+        } catch (RuntimeException ex) {
+            synchronized (this) {
+                rebuilding = false;
+                takenDuringRebuild.clear();
+            }
+            throw ex;
+        }
+
+        synchronized (this) {
+            rebuilding = false;
+            // The scan may already have passed these rows
+            takenDuringRebuild.forEach(filter::put);
+            takenDuringRebuild.clear();
+            taken = filter;
+        }
+        log.debug("Rebuilt username availability filter");
+    }
+
+    // Walks the username index a page at a time instead of holding one long scan open
+    private void scan(BloomFilter filter) {
+        String after = "";
+        List<String> usernames;
+        do {
+            usernames = jdbcTemplate.queryForList(
+                    "SELECT username FROM users WHERE username > ? ORDER BY username LIMIT ?",
+                    String.class, after, rebuildBatchSize);
+            usernames.forEach(filter::put);
+            if (!usernames.isEmpty()) {
+                after = usernames.get(usernames.size() - 1);
+            }
+        } while (usernames.size() == rebuildBatchSize);
+    }
+
+    public boolean isUsernameAvailable(String username) {
+        BloomFilter filter = taken;
+        if (filter != null && !filter.mightContain(username)) {
+            filtered.increment();
+            return true;
+        }
+        queried.increment();
+        return !userRepository.existsByUsername(username);
+    }
+
+    // Called for every user created on this node once it is committed, so the filter never misses
+    // local registrations, including those a running rebuild's scan has already passed
+    public void markTaken(String username) {
+        if (username == null) {
+            return;
+        }
+        synchronized (this) {
+            if (rebuilding) {
+                takenDuringRebuild.add(username);
+            }
+        }
+        BloomFilter filter = taken;
+        if (filter != null) {
+            filter.put(username);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.app.authservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Time-bound leases in the job_leases table, so a scheduled job runs on one
+ * node at a time. A lease is taken by inserting the job's row or by taking
+ * over a row whose lease has run out; either is a single statement, so two
+ * nodes cannot both succeed. A node that dies holding a lease blocks the job
+ * only until the lease expires.
+ *
+ * Expiry is judged by the nodes' clocks, so lease durations should be far
+ * longer than any clock skew between them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JobLeaseService {
+
+    private static final String TAKE_OVER = "UPDATE job_leases SET owner = ?, locked_until = ? " +
+            "WHERE name = ? AND (locked_until <= ? OR owner = ?)";
+
+    private static final String CREATE = "INSERT INTO job_leases (name, owner, locked_until) VALUES (?, ?, ?)";
+
+    private static final String RELEASE = "UPDATE job_leases SET locked_until = ? WHERE name = ? AND owner = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Unique per running instance, readable in the table
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + ":" + UUID.randomUUID();
+
+    /**
+     * Takes or renews the named lease for the given duration.
+     *
+     * @return whether this node now holds the lease
+     */
+    public boolean tryAcquire(String name, Duration duration) {
+        Instant now = Instant.now();
+        Timestamp lockedUntil = Timestamp.from(now.plus(duration));
+
+        if (jdbcTemplate.update(TAKE_OVER, owner, lockedUntil, name, Timestamp.from(now), owner) == 1) {
+            return true;
+        }
+
+        try {
+            jdbcTemplate.update(CREATE, name, owner, lockedUntil);
+            return true;
+        } catch (DataIntegrityViolationException ex) {
+            // The row exists and another node's lease is still running
+            log.debug("Lease {} is held by another node", name);
+            return false;
+        }
+    }
+
+    public void release(String name) {
+        jdbcTemplate.update(RELEASE, Timestamp.from(Instant.now()), name, owner);
+    }
+}
@@ -0,0 +1,138 @@
+package com.app.authservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write-behind buffer for {@code users.last_login_at}. Logins only record the
+ * user id and time in memory; a scheduled flush writes them with one JDBC
+ * batch, keeping the latest time per user. The update goes around Hibernate,
+ * so it does not bump {@code updated_at} or evict cached principals.
+ *
+ * About {@code auth.login-activity.max-pending} users are buffered at most.
+ * A login that finds the buffer full is dropped, counted as
+ * {@code login_activity.dropped}, and brings the next flush forward on the
+ * scheduler; logins never write to the database themselves. Entries put back
+ * after a failed flush obey the same bound. Pending entries are also flushed
+ * on shutdown, so only a crash, a full buffer or a long outage loses updates.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LoginActivityRecorder {
+
+    // Never moves last_login_at backwards, e.g. when another node flushed a later login first
+    private static final String UPDATE_LAST_LOGIN =
+            "UPDATE users SET last_login_at = ? WHERE id = ? AND (last_login_at IS NULL OR last_login_at < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final TaskScheduler taskScheduler;
+
+    @Value("${auth.login-activity.max-pending:10000}")
+    private int maxPending;
+
+    @Value("${auth.login-activity.batch-size:500}")
+    private int batchSize;
+
+    private final Map<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+    // Set while an early flush is queued, and kept after it fails so a full buffer waits for the schedule
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private Counter written;
+    private Counter dropped;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("login_activity.pending", pending, Map::size).register(meterRegistry);
+        written = Counter.builder("login_activity.written").register(meterRegistry);
+        dropped = Counter.builder("login_activity.dropped").register(meterRegistry);
+    }
+
+    public void recordLogin(String userId, LocalDateTime loginAt) {
+        if (!buffer(userId, loginAt)) {
+            requestFlush();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.login-activity.flush-interval-ms:5000}",
+            initialDelayString = "${auth.login-activity.flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            flushRequested.set(false);
+            return;
+        }
+
+        // Take only entries that are unchanged, a login arriving meanwhile stays queued
+        List<Object[]> batch = new ArrayList<>(pending.size());
+        for (Map.Entry<String, LocalDateTime> entry : pending.entrySet()) {
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                Timestamp loginAt = Timestamp.valueOf(entry.getValue());
+                batch.add(new Object[]{loginAt, entry.getKey(), loginAt});
+            }
+        }
+
+        try {
+            for (int from = 0; from < batch.size(); from += batchSize) {
+                jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN, batch.subList(from, Math.min(from + batchSize, batch.size())));
+            }
+            written.increment(batch.size());
+            flushRequested.set(false);
+            log.debug("Flushed last login time for {} users", batch.size());
+        } catch (DataAccessException ex) {
+            // Put them back for the next attempt as far as there is room; newer logins recorded meanwhile win
+            for (Object[] row : batch) {
+                buffer((String) row[1], ((Timestamp) row[0]).toLocalDateTime());
+            }
+            log.warn("Could not flush last login times, will retry: {}", ex.getMessage());
+        }
+    }
+
+    // Users already pending are always updated; new ones only while there is room
+    private boolean buffer(String userId, LocalDateTime loginAt) {
+        if (pending.size() >= maxPending && !pending.containsKey(userId)) {
+            dropped.increment();
+            return false;
+        }
+        pending.merge(userId, loginAt, LoginActivityRecorder::latest);
+        return true;
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::flush, Instant.now());
+        }
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
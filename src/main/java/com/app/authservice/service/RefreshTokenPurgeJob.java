@@ -0,0 +1,111 @@
+package com.app.authservice.service;
+
+import com.app.authservice.repo.RefreshTokenStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes expired and revoked refresh tokens in the background. Tokens are
+ * removed {@code batch-size} at a time, each batch in its own short
+ * transaction with a pause in between, so the purge never holds locks on the
+ * whole table. A run stops after {@code max-duration} and the next one picks
+ * up where it left off.
+ *
+ * Only the node holding the {@value #LEASE} lease runs the purge. Deleted
+ * tokens are published as {@code refresh_token.purge.deleted} and run times
+ * as {@code refresh_token.purge.duration}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenPurgeJob {
+
+    static final String LEASE = "refresh-token-purge";
+
+    private final RefreshTokenStore refreshTokenStore;
+    private final JobLeaseService jobLeaseService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${auth.refresh-token-purge.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth.refresh-token-purge.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${auth.refresh-token-purge.pause:100ms}")
+    private Duration pause;
+
+    @Value("${auth.refresh-token-purge.max-duration:5m}")
+    private Duration maxDuration;
+
+    private Counter deleted;
+    private Timer duration;
+
+    @PostConstruct
+    public void init() {
+        deleted = Counter.builder("refresh_token.purge.deleted").register(meterRegistry);
+        duration = Timer.builder("refresh_token.purge.duration").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.refresh-token-purge.interval-ms:3600000}",
+            initialDelayString = "${auth.refresh-token-purge.interval-ms:3600000}")
+    public void scheduledPurge() {
+        purge();
+    }
+
+    /**
+     * Runs one purge if this node gets the lease.
+     *
+     * @return the number of tokens deleted
+     */
+    public long purge() {
+        // The lease outlasts the longest run, so it cannot expire while this node is still purging
+        if (!enabled || !jobLeaseService.tryAcquire(LEASE, maxDuration.multipliedBy(2))) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        long total = 0;
+        try {
+            Instant now = Instant.now();
+            long deadline = start + maxDuration.toNanos();
+            int removed;
+            do {
+                removed = refreshTokenStore.purge(now, batchSize);
+                total += removed;
+                deleted.increment(removed);
+            } while (removed == batchSize && System.nanoTime() < deadline && pause());
+        } finally {
+            jobLeaseService.release(LEASE);
+            duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        if (total > 0) {
+            log.info("Purged {} expired or revoked refresh tokens in {} ms",
+                    total, (System.nanoTime() - start) / 1_000_000);
+        }
+        return total;
+    }
+
+    // Gives other transactions a turn at the table between batches
+    private boolean pause() {
+        try {
+            Thread.sleep(pause.toMillis());
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
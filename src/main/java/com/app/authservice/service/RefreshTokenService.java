@@ -3,14 +3,18 @@ package com.app.authservice.service;
 import com.app.authservice.exception.TokenRefreshException;
 import com.app.authservice.model.RefreshToken;
 import com.app.authservice.model.User;
-import com.app.authservice.repo.RefreshTokenRepository;
+import com.app.authservice.repo.RefreshTokenStore;
 import com.app.authservice.repo.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.time.Instant;
+import java.util.Base64;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -18,34 +22,56 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class RefreshTokenService {
 
+    private static final int TOKEN_BYTES = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     @Value("${auth.jwt.refresh-token.expiration}")
     private Long refreshTokenDurationMs;
 
-    private final RefreshTokenRepository refreshTokenRepository;
+    @Value("${auth.jwt.refresh-token.max-sessions:5}")
+    private int maxSessions;
+
+    private final RefreshTokenStore refreshTokenStore;
     private final UserRepository userRepository;
 
+    // Looked up by digest, so the lookup reveals nothing about the stored tokens
     public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
+        return refreshTokenStore.findByTokenHash(hash(token))
+                .map(refreshToken -> {
+                    refreshToken.setToken(token);
+                    return refreshToken;
+                });
     }
 
     public RefreshToken createRefreshToken(String userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Revoke existing tokens
-        refreshTokenRepository.revokeAllUserTokens(user);
+        return createRefreshToken(user);
+    }
 
+    /**
+     * Starts a new session for the user; the user's other sessions stay
+     * valid unless that makes more than {@code max-sessions}, in which case
+     * the oldest are revoked. For callers that already hold the user, saves
+     * reloading it.
+     */
+    public RefreshToken createRefreshToken(User user) {
+        Instant now = Instant.now();
         RefreshToken refreshToken = new RefreshToken();
         refreshToken.setUser(user);
-        refreshToken.setExpiryDate(Instant.now().plusMillis(refreshTokenDurationMs));
-        refreshToken.setToken(UUID.randomUUID().toString());
+        refreshToken.setSessionId(UUID.randomUUID().toString());
+        refreshToken.setCreatedAt(now);
+        refreshToken.setExpiryDate(now.plusMillis(refreshTokenDurationMs));
+        refreshToken.setToken(generateToken());
+        refreshToken.setTokenHash(hash(refreshToken.getToken()));
 
-        return refreshTokenRepository.save(refreshToken);
+        return refreshTokenStore.addSession(refreshToken, maxSessions);
     }
 
     public RefreshToken verifyExpiration(RefreshToken token) {
         if (token.getExpiryDate().compareTo(Instant.now()) < 0) {
-            refreshTokenRepository.delete(token);
+            refreshTokenStore.delete(token);
             throw new TokenRefreshException(token.getToken(),
                     "Refresh token was expired. Please make a new signin request");
         }
@@ -58,15 +84,26 @@ public class RefreshTokenService {
         return token;
     }
 
-    @Transactional
+    public void revokeSession(String userId, String sessionId) {
+        refreshTokenStore.revokeSession(userId, sessionId);
+    }
+
     public void deleteByUserId(String userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        refreshTokenRepository.revokeAllUserTokens(user);
+        refreshTokenStore.revokeAllUserTokens(userId);
     }
 
-    @Transactional
-    public void deleteExpiredTokens() {
-        refreshTokenRepository.deleteAllExpiredSince(Instant.now());
+    // 256 random bits, against the 122 of a random UUID
+    static String generateToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    static byte[] hash(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,15 +1,23 @@
 package com.app.authservice.service;
 
 
+import com.app.authservice.model.Permission;
 import com.app.authservice.model.Role;
 import com.app.authservice.repo.RoleRepository;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @RequiredArgsConstructor
@@ -18,6 +26,13 @@ public class RoleService {
 
     private final RoleRepository roleRepository;
 
+    // One shared instance per authority name, reused across snapshots
+    private final Map<String, GrantedAuthority> authorityPool = new ConcurrentHashMap<>();
+
+    // Copy-on-write: readers never lock, a reload publishes a new snapshot
+    private volatile RoleSnapshot snapshot = new RoleSnapshot(Map.of(), Map.of());
+    private volatile boolean stale = true;
+
     @PostConstruct
     public void initRoles() {
         List<String> roleNames = Arrays.asList("USER", "ADMIN", "MODERATOR");
@@ -32,20 +47,128 @@ public class RoleService {
                 log.info("Created role: {}", roleName);
             }
         }
+
+        reloadSnapshot();
     }
 
+    // Returns a reference for associating users with the role; no query is issued
     public Role getUserRole() {
-        return roleRepository.findByName("USER")
-                .orElseThrow(() -> new RuntimeException("USER role not found"));
+        return getRoleReference("USER");
     }
 
     public Role getAdminRole() {
-        return roleRepository.findByName("ADMIN")
-                .orElseThrow(() -> new RuntimeException("ADMIN role not found"));
+        return getRoleReference("ADMIN");
     }
 
     public Role getModeratorRole() {
-        return roleRepository.findByName("MODERATOR")
-                .orElseThrow(() -> new RuntimeException("MODERATOR role not found"));
+        return getRoleReference("MODERATOR");
+    }
+
+    /**
+     * The authorities granted by the given roles: each role's permissions
+     * followed by {@code ROLE_<name>}. The lists and authority instances come
+     * from the snapshot and are shared; only roles unknown to the snapshot are
+     * built from the entities.
+     */
+    public List<GrantedAuthority> getAuthorities(Collection<Role> roles) {
+        RoleSnapshot current = currentSnapshot();
+
+        if (roles.size() == 1) {
+            return authoritiesOf(current, roles.iterator().next());
+        }
+
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        for (Role role : roles) {
+            authorities.addAll(authoritiesOf(current, role));
+        }
+        return authorities;
+    }
+
+    // Same as getAuthorities(Collection) for callers that only loaded the role ids
+    public List<GrantedAuthority> getAuthoritiesByRoleIds(List<Long> roleIds) {
+        if (roleIds.size() == 1) {
+            return authoritiesOf(roleIds.get(0));
+        }
+
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        for (Long roleId : roleIds) {
+            authorities.addAll(authoritiesOf(roleId));
+        }
+        return authorities;
+    }
+
+    // Called when roles or permissions change; the next lookup reloads the snapshot
+    public void markStale() {
+        stale = true;
+    }
+
+    public synchronized void reloadSnapshot() {
+        stale = false;
+
+        Map<String, RoleEntry> byName = new HashMap<>();
+        Map<Long, RoleEntry> byId = new HashMap<>();
+        for (Role role : roleRepository.findAll()) {
+            RoleEntry entry = new RoleEntry(role.getId(), role.getName(), buildAuthorities(role));
+            byName.put(entry.name(), entry);
+            byId.put(entry.id(), entry);
+        }
+
+        snapshot = new RoleSnapshot(Map.copyOf(byName), Map.copyOf(byId));
+        log.debug("Loaded role snapshot with {} roles", byName.size());
+    }
+
+    private RoleSnapshot currentSnapshot() {
+        if (stale) {
+            reloadSnapshot();
+        }
+        return snapshot;
+    }
+
+    private Role getRoleReference(String name) {
+        RoleEntry entry = currentSnapshot().byName().get(name);
+        if (entry == null) {
+            throw new RuntimeException(name + " role not found");
+        }
+        return roleRepository.getReferenceById(entry.id());
+    }
+
+    private List<GrantedAuthority> authoritiesOf(RoleSnapshot current, Role role) {
+        RoleEntry entry = current.byId().get(role.getId());
+        if (entry != null) {
+            return entry.authorities();
+        }
+
+        // Created after the snapshot was taken
+        markStale();
+        return buildAuthorities(role);
+    }
+
+    private List<GrantedAuthority> authoritiesOf(Long roleId) {
+        RoleEntry entry = currentSnapshot().byId().get(roleId);
+        if (entry == null) {
+            // Created after the snapshot was taken
+            reloadSnapshot();
+            entry = snapshot.byId().get(roleId);
+        }
+        return entry != null ? entry.authorities() : List.of();
+    }
+
+    private List<GrantedAuthority> buildAuthorities(Role role) {
+        List<GrantedAuthority> authorities = new ArrayList<>(role.getPermissions().size() + 1);
+        for (Permission permission : role.getPermissions()) {
+            authorities.add(intern(permission.getName()));
+        }
+        authorities.add(intern("ROLE_" + role.getName()));
+        return List.copyOf(authorities);
+    }
+
+    private GrantedAuthority intern(String authority) {
+        return authorityPool.computeIfAbsent(authority, SimpleGrantedAuthority::new);
+    }
+
+    private record RoleEntry(Long id, String name, List<GrantedAuthority> authorities) {
+    }
+
+    private record RoleSnapshot(Map<String, RoleEntry> byName, Map<Long, RoleEntry> byId) {
     }
 }
@@ -0,0 +1,62 @@
+package com.app.authservice.service;
+
+import com.app.authservice.dto.response.TokenIntrospectionResult;
+import com.app.authservice.security.JwtTokenProvider;
+import com.app.authservice.security.TokenRevocationService;
+import com.app.authservice.security.VerifiedToken;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class TokenIntrospectionService {
+
+    private final JwtTokenProvider tokenProvider;
+    private final TokenRevocationService tokenRevocationService;
+
+    // Below this batch size verifying on the caller thread is cheaper than forking
+    @Value("${auth.introspection.parallel-threshold:8}")
+    private int parallelThreshold;
+
+    @Value("${auth.introspection.max-cache-seconds:60}")
+    private long maxCacheSeconds;
+
+    public List<TokenIntrospectionResult> introspect(List<String> tokens) {
+        Stream<String> stream = tokens.size() >= parallelThreshold
+                ? tokens.parallelStream()
+                : tokens.stream();
+
+        return stream.map(this::introspect).toList();
+    }
+
+    public TokenIntrospectionResult introspect(String token) {
+        VerifiedToken verified = tokenProvider.verify(token);
+
+        if (!verified.isValid() || tokenRevocationService.isRevoked(verified.getSubject())) {
+            return TokenIntrospectionResult.inactive();
+        }
+        return TokenIntrospectionResult.fromToken(verified);
+    }
+
+    /**
+     * How long a caller may reuse the answer: never past the earliest expiry of
+     * an active token in the batch, and never longer than the configured cap so
+     * account revocations are picked up.
+     */
+    public long cacheSeconds(List<TokenIntrospectionResult> results) {
+        long now = Instant.now().getEpochSecond();
+        long seconds = maxCacheSeconds;
+
+        for (TokenIntrospectionResult result : results) {
+            if (result.isActive() && result.getExpiresAt() != null) {
+                seconds = Math.min(seconds, result.getExpiresAt() - now);
+            }
+        }
+        return Math.max(0, seconds);
+    }
+}
@@ -0,0 +1,54 @@
+package com.app.authservice.service;
+
+import com.app.authservice.dto.response.UserImportReport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Command-line mode for {@link UserImportService}: started with
+ * {@code --auth.import.file=users.csv} (or {@code .ndjson}), the application
+ * imports the file, logs the report and exits with status 1 if any row failed.
+ */
+@Component
+@ConditionalOnProperty("auth.import.file")
+@RequiredArgsConstructor
+@Slf4j
+public class UserImportRunner implements ApplicationRunner {
+
+    private final UserImportService userImportService;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${auth.import.file}")
+    private Path file;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        UserImportService.Format format = file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv")
+                ? UserImportService.Format.CSV
+                : UserImportService.Format.NDJSON;
+
+        UserImportReport report;
+        try (InputStream input = Files.newInputStream(file)) {
+            report = userImportService.importUsers(input, format);
+        }
+
+        report.getErrors().forEach(error -> log.warn("Line {}: {}", error.getLine(), error.getMessage()));
+        if (report.isErrorsTruncated()) {
+            log.warn("Only the first {} of {} errors are listed", report.getErrors().size(), report.getFailed());
+        }
+
+        System.exit(SpringApplication.exit(context, () -> report.getFailed() == 0 ? 0 : 1));
+    }
+}
@@ -0,0 +1,21 @@
+package com.app.authservice.util;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+public class ConstraintViolationUtils {
+
+    /**
+     * Whether the violation is of the named constraint. Uses the name Hibernate
+     * extracted when it has one, otherwise looks for it in the driver's message.
+     */
+    public static boolean isViolationOf(DataIntegrityViolationException ex, String constraintName) {
+        String violated = ex.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                ? violation.getConstraintName()
+                : String.valueOf(ex.getMostSpecificCause().getMessage());
+        return violated.toLowerCase(Locale.ROOT).contains(constraintName.toLowerCase(Locale.ROOT));
+    }
+}
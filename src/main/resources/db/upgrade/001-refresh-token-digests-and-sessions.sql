@@ -0,0 +1,53 @@
+-- Moves refresh_tokens to the layout where tokens are stored as SHA-256 digests
+-- (token_hash) and each row is one session (session_id, created_at).
+--
+-- Run once against PostgreSQL (11 or later, for sha256()) before starting the
+-- new version. ddl-auto=update cannot do this itself: it never drops the old
+-- token column or the unique constraint on user_id, and it cannot add NOT NULL
+-- columns to a populated table.
+--
+-- Existing sessions survive: each stored token is replaced by its digest, which
+-- is exactly what the service computes for the token the client presents.
+
+BEGIN;
+
+ALTER TABLE refresh_tokens ADD COLUMN IF NOT EXISTS token_hash bytea;
+ALTER TABLE refresh_tokens ADD COLUMN IF NOT EXISTS session_id varchar(36);
+ALTER TABLE refresh_tokens ADD COLUMN IF NOT EXISTS created_at timestamp(6) with time zone;
+
+UPDATE refresh_tokens SET token_hash = sha256(convert_to(token, 'UTF8')) WHERE token_hash IS NULL;
+-- Every existing row was the user's only session
+UPDATE refresh_tokens SET session_id = id WHERE session_id IS NULL;
+-- Creation times were never recorded; expiry minus the default 7-day lifetime keeps their order
+UPDATE refresh_tokens SET created_at = expiry_date - interval '7 days' WHERE created_at IS NULL;
+
+ALTER TABLE refresh_tokens DROP COLUMN IF EXISTS token;
+ALTER TABLE refresh_tokens
+    ALTER COLUMN token_hash SET NOT NULL,
+    ALTER COLUMN session_id SET NOT NULL,
+    ALTER COLUMN created_at SET NOT NULL;
+
+-- The user association used to be one-to-one; its generated unique constraint would allow one session per user
+DO $$
+DECLARE
+    name text;
+BEGIN
+    FOR name IN
+        SELECT con.conname
+        FROM pg_constraint con
+        JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attnum = con.conkey[1]
+        WHERE con.conrelid = 'refresh_tokens'::regclass
+          AND con.contype = 'u'
+          AND cardinality(con.conkey) = 1
+          AND att.attname = 'user_id'
+    LOOP
+        EXECUTE format('ALTER TABLE refresh_tokens DROP CONSTRAINT %I', name);
+    END LOOP;
+END $$;
+
+ALTER TABLE refresh_tokens DROP CONSTRAINT IF EXISTS uk_refresh_tokens_token_hash;
+ALTER TABLE refresh_tokens ADD CONSTRAINT uk_refresh_tokens_token_hash UNIQUE (token_hash);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_refresh_tokens_user_session ON refresh_tokens (user_id, session_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expiry_date ON refresh_tokens (expiry_date);
+
+COMMIT;
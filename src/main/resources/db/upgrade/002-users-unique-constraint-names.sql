@@ -0,0 +1,42 @@
+-- Gives the unique constraints on users.email and users.username the names the
+-- service matches duplicate violations by (uk_users_email, uk_users_username).
+--
+-- Run once against PostgreSQL before starting the new version. Databases built
+-- by ddl-auto=update carry Hibernate's generated names (uk_...hash...), and
+-- ddl-auto=update never renames a constraint; with the old names a duplicate
+-- registration fails with 500 instead of 409 and OAuth2 sign-up does not retry
+-- a taken username.
+--
+-- Safe to run more than once: correctly named constraints are left alone and a
+-- missing one is created.
+
+BEGIN;
+
+DO $$
+DECLARE
+    target record;
+    existing text;
+BEGIN
+    FOR target IN
+        SELECT * FROM (VALUES ('email', 'uk_users_email'), ('username', 'uk_users_username')) AS t(col, name)
+    LOOP
+        SELECT con.conname INTO existing
+        FROM pg_constraint con
+        JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attnum = con.conkey[1]
+        WHERE con.conrelid = 'users'::regclass
+          AND con.contype = 'u'
+          AND cardinality(con.conkey) = 1
+          AND att.attname = target.col
+        ORDER BY con.conname = target.name DESC
+        LIMIT 1;
+
+        IF existing IS NULL THEN
+            EXECUTE format('ALTER TABLE users ADD CONSTRAINT %I UNIQUE (%I)', target.name, target.col);
+        ELSIF existing <> target.name THEN
+            -- Renames the backing index as well
+            EXECUTE format('ALTER TABLE users RENAME CONSTRAINT %I TO %I', existing, target.name);
+        END IF;
+    END LOOP;
+END $$;
+
+COMMIT;
@@ -0,0 +1,31 @@
+-- Stores a new session's refresh token and revokes the user's oldest sessions beyond the limit, atomically.
+-- KEYS[1] the user's sessions (a sorted set of "<session id>:<token key suffix>", scored by creation time)
+-- KEYS[2] key of the new token
+-- ARGV[1] token key prefix, ARGV[2] new member, ARGV[3] user id, ARGV[4] session id,
+-- ARGV[5] created at in epoch ms, ARGV[6] expiry in epoch ms, ARGV[7] TTL in ms, ARGV[8] max sessions
+-- Token keys are built from the set, so this needs all keys on one Redis node
+-- Returns the number of sessions revoked
+redis.call('HSET', KEYS[2], 'userId', ARGV[3], 'sessionId', ARGV[4], 'expiry', ARGV[6], 'revoked', '0')
+redis.call('PEXPIRE', KEYS[2], ARGV[7])
+redis.call('ZADD', KEYS[1], ARGV[5], ARGV[2])
+-- The set lives as long as the newest token in it
+redis.call('PEXPIRE', KEYS[1], ARGV[7])
+
+local live = {}
+for _, member in ipairs(redis.call('ZRANGE', KEYS[1], 0, -1)) do
+    local key = ARGV[1] .. string.sub(member, string.find(member, ':', 1, true) + 1)
+    if redis.call('EXISTS', key) == 1 then
+        table.insert(live, {member = member, key = key})
+    else
+        -- Gone by its TTL
+        redis.call('ZREM', KEYS[1], member)
+    end
+end
+
+-- Oldest first, so the sessions beyond the limit come first
+local excess = #live - tonumber(ARGV[8])
+for i = 1, excess do
+    redis.call('HSET', live[i].key, 'revoked', '1')
+    redis.call('ZREM', KEYS[1], live[i].member)
+end
+return math.max(excess, 0)
@@ -0,0 +1,18 @@
+-- Revokes one or all of a user's sessions, atomically.
+-- KEYS[1] the user's sessions (a sorted set of "<session id>:<token key suffix>")
+-- ARGV[1] token key prefix, ARGV[2] session id to revoke, empty for all
+-- Returns the number of sessions revoked
+local revoked = 0
+for _, member in ipairs(redis.call('ZRANGE', KEYS[1], 0, -1)) do
+    local separator = string.find(member, ':', 1, true)
+    if ARGV[2] == '' or string.sub(member, 1, separator - 1) == ARGV[2] then
+        local key = ARGV[1] .. string.sub(member, separator + 1)
+        -- Tokens already gone by their TTL are just dropped from the set
+        if redis.call('EXISTS', key) == 1 then
+            redis.call('HSET', key, 'revoked', '1')
+            revoked = revoked + 1
+        end
+        redis.call('ZREM', KEYS[1], member)
+    end
+end
+return revoked
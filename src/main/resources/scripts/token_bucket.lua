@@ -0,0 +1,27 @@
+-- Token bucket, evaluated atomically by Redis.
+-- KEYS[1] bucket key
+-- ARGV[1] capacity, ARGV[2] refill rate in tokens per second
+-- Returns 0 if a token was taken, otherwise the milliseconds until one is available
+local capacity = tonumber(ARGV[1])
+local rate = tonumber(ARGV[2]) / 1000
+
+-- Redis' own clock, so nodes with skewed clocks share one timeline
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+local tokens = tonumber(bucket[1]) or capacity
+local ts = tonumber(bucket[2]) or now
+tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate)
+
+local wait = 0
+if tokens >= 1 then
+    tokens = tokens - 1
+else
+    wait = math.max(1, math.ceil((1 - tokens) / rate))
+end
+
+redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', now)
+-- A bucket that has refilled completely carries no state worth keeping
+redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / rate))
+return wait
@@ -0,0 +1,167 @@
+package com.app.authservice.controller;
+
+import com.app.authservice.model.Permission;
+import com.app.authservice.model.Role;
+import com.app.authservice.model.User;
+import com.app.authservice.security.JwtKeyRing;
+import com.app.authservice.security.JwtTokenProvider;
+import com.app.authservice.security.TokenRevocationService;
+import com.app.authservice.service.RoleService;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TokenIntrospectionControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JwtTokenProvider tokenProvider;
+
+	@Autowired
+	private JwtKeyRing keyRing;
+
+	@Autowired
+	private TokenRevocationService tokenRevocationService;
+
+	@Autowired
+	private RoleService roleService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private User user;
+	private User revoked;
+	private String resourceServerToken;
+	private String userToken;
+	private String revokedToken;
+
+	@BeforeEach
+	void setUp() {
+		String suffix = UUID.randomUUID().toString().substring(0, 8);
+		transactionTemplate.executeWithoutResult(status -> {
+			Permission permission = new Permission();
+			permission.setName("TOKEN_INTROSPECT");
+			permission = entityManager.merge(findOrCreate(permission));
+			Role role = Role.builder().name("RESOURCE_SERVER_" + suffix).build();
+			role.getPermissions().add(permission);
+			entityManager.persist(role);
+
+			user = persistUser("user-" + suffix, roleService.getUserRole());
+			revoked = persistUser("revoked-" + suffix, roleService.getUserRole());
+			resourceServerToken = tokenProvider.generateToken(persistUser("resource-server-" + suffix, role));
+			userToken = tokenProvider.generateToken(user);
+			revokedToken = tokenProvider.generateToken(revoked);
+		});
+		tokenRevocationService.revokeUser(revoked.getId());
+	}
+
+	@AfterEach
+	void tearDown() {
+		tokenRevocationService.restoreUser(revoked.getId());
+	}
+
+	@Test
+	void rejectsCallersWithoutAToken() throws Exception {
+		mockMvc.perform(introspect(userToken))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void rejectsCallersWithoutTheIntrospectAuthority() throws Exception {
+		mockMvc.perform(introspect(userToken)
+						.header(HttpHeaders.AUTHORIZATION, "Bearer " + userToken))
+				.andExpect(status().isForbidden());
+	}
+
+	@Test
+	void answersEachTokenOfAMixedBatchInOrder() throws Exception {
+		mockMvc.perform(introspect(
+								userToken,
+								expiredToken(user),
+								revokedToken,
+								"not-a-jwt")
+						.header(HttpHeaders.AUTHORIZATION, "Bearer " + resourceServerToken))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, private"))
+				.andExpect(jsonPath("$.results.length()").value(4))
+				.andExpect(jsonPath("$.results[0].active").value(true))
+				.andExpect(jsonPath("$.results[0].sub").value(user.getId()))
+				.andExpect(jsonPath("$.results[0].username").value(user.getUsername()))
+				.andExpect(jsonPath("$.results[1].active").value(false))
+				.andExpect(jsonPath("$.results[1].sub").doesNotExist())
+				.andExpect(jsonPath("$.results[2].active").value(false))
+				.andExpect(jsonPath("$.results[3].active").value(false));
+	}
+
+	private static MockHttpServletRequestBuilder introspect(String... tokens) {
+		StringBuilder body = new StringBuilder("{\"tokens\":[");
+		for (int i = 0; i < tokens.length; i++) {
+			body.append(i > 0 ? "," : "").append('"').append(tokens[i]).append('"');
+		}
+		return post("/api/v1/auth/introspect")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(body.append("]}").toString());
+	}
+
+	private String expiredToken(User user) {
+		JwtKeyRing.SigningKey key = keyRing.activeKey();
+		Instant issuedAt = Instant.now().minus(Duration.ofHours(2));
+		return Jwts.builder()
+				.setHeaderParam(JwsHeader.KEY_ID, key.kid())
+				.setSubject(user.getId())
+				.claim("username", user.getUsername())
+				.setIssuedAt(Date.from(issuedAt))
+				.setExpiration(Date.from(issuedAt.plus(Duration.ofHours(1))))
+				.signWith(key.signingKey(), key.algorithm())
+				.compact();
+	}
+
+	private Permission findOrCreate(Permission permission) {
+		return entityManager.createQuery("SELECT p FROM Permission p WHERE p.name = :name", Permission.class)
+				.setParameter("name", permission.getName())
+				.getResultStream()
+				.findFirst()
+				.orElse(permission);
+	}
+
+	private User persistUser(String username, Role role) {
+		User user = User.builder()
+				.email(username + "@example.com")
+				.username(username)
+				.provider(User.AuthProvider.LOCAL)
+				.build();
+		user.getRoles().add(role);
+		entityManager.persist(user);
+		return user;
+	}
+}
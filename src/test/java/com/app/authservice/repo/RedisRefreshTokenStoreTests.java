@@ -0,0 +1,160 @@
+package com.app.authservice.repo;
+
+import com.app.authservice.dto.request.LoginRequest;
+import com.app.authservice.dto.request.TokenRefreshRequest;
+import com.app.authservice.dto.response.AuthResponse;
+import com.app.authservice.exception.TokenRefreshException;
+import com.app.authservice.model.User;
+import com.app.authservice.service.AuthService;
+import com.app.authservice.service.RoleService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RedisRefreshTokenStoreTests {
+
+	private static final String KEY_PREFIX = "test:" + UUID.randomUUID() + ":";
+	private static final RedisServer redisServer;
+	private static final int redisPort;
+
+	// Started before the context, which needs the port
+	static {
+		try {
+			redisPort = freePort();
+			redisServer = new RedisServer(redisPort);
+			redisServer.start();
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	@DynamicPropertySource
+	static void redisProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.data.redis.port", () -> redisPort);
+		registry.add("auth.jwt.refresh-token.store", () -> "redis");
+		registry.add("auth.jwt.refresh-token.redis.key-prefix", () -> KEY_PREFIX);
+		registry.add("auth.jwt.refresh-token.max-sessions", () -> 2);
+	}
+
+	@Autowired
+	private AuthService authService;
+
+	@Autowired
+	private RefreshTokenStore refreshTokenStore;
+
+	@Autowired
+	private RefreshTokenRepository refreshTokenRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RoleService roleService;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private StringRedisTemplate redisTemplate;
+
+	private User user;
+
+	@AfterAll
+	static void stopRedis() throws IOException {
+		redisServer.stop();
+	}
+
+	@BeforeEach
+	void setUp() {
+		user = User.builder()
+				.email("redis@example.com")
+				.username("redis")
+				.password(passwordEncoder.encode("correct-horse"))
+				.provider(User.AuthProvider.LOCAL)
+				.build();
+		user.getRoles().add(roleService.getUserRole());
+		user = userRepository.save(user);
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void sessionsLiveInRedisUpToTheLimit() throws NoSuchAlgorithmException {
+		assertThat(refreshTokenStore).isInstanceOf(RedisRefreshTokenStore.class);
+
+		String first = login().getRefreshToken();
+		assertThat(authService.refreshToken(refreshRequest(first)).getUser().getUsername()).isEqualTo("redis");
+		assertThat(redisTemplate.getExpire(KEY_PREFIX + "token:" + sha256(first))).isPositive();
+		assertThat(refreshTokenRepository.count()).isZero();
+
+		String second = login().getRefreshToken();
+		assertThat(authService.refreshToken(refreshRequest(first)).getAccessToken()).isNotBlank();
+
+		// max-sessions is 2 here, so the third login evicts the first
+		String third = login().getRefreshToken();
+		assertThatThrownBy(() -> authService.refreshToken(refreshRequest(first)))
+				.isInstanceOf(TokenRefreshException.class);
+		assertThat(redisTemplate.opsForZSet().size(KEY_PREFIX + "user:" + user.getId())).isEqualTo(2);
+
+		authService.logoutSession(user.getId(), second);
+		assertThatThrownBy(() -> authService.refreshToken(refreshRequest(second)))
+				.isInstanceOf(TokenRefreshException.class);
+		assertThat(authService.refreshToken(refreshRequest(third)).getAccessToken()).isNotBlank();
+
+		authService.logoutUser(user.getId());
+		assertThatThrownBy(() -> authService.refreshToken(refreshRequest(third)))
+				.isInstanceOf(TokenRefreshException.class);
+	}
+
+	private AuthResponse login() {
+		LoginRequest request = new LoginRequest();
+		request.setUsernameOrEmail("redis");
+		request.setPassword("correct-horse");
+		return authService.authenticateUser(request);
+	}
+
+	private static TokenRefreshRequest refreshRequest(String token) {
+		TokenRefreshRequest request = new TokenRefreshRequest();
+		request.setRefreshToken(token);
+		return request;
+	}
+
+	private static String sha256(String token) throws NoSuchAlgorithmException {
+		byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package com.app.authservice.security;
+
+import com.app.authservice.model.User;
+import com.app.authservice.repo.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CustomOAuth2UserServiceTests {
+
+	@Autowired
+	private CustomOAuth2UserService oAuth2UserService;
+
+	@SpyBean
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@AfterEach
+	void tearDown() {
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void picksTheLowestFreeSuffixWithOneQuery() {
+		for (String username : new String[]{"john", "john1", "john3", "johnny", "jo_hn"}) {
+			save(username);
+		}
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		assertThat(oAuth2UserService.generateUsername("john")).isEqualTo("john2");
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+		// The candidates are compared for equality, so wildcards in the email local part mean nothing
+		assertThat(oAuth2UserService.generateUsername("jo%")).isEqualTo("jo%");
+		assertThat(oAuth2UserService.generateUsername("jo_hn")).isEqualTo("jo_hn1");
+		assertThat(oAuth2UserService.generateUsername("joxhn")).isEqualTo("joxhn");
+	}
+
+	@Test
+	void fallsBackToARandomSuffixWhenTheFirstOnesAreTaken() {
+		save("busy");
+		for (int suffix = 1; suffix <= CustomOAuth2UserService.CANDIDATE_SUFFIXES; suffix++) {
+			save("busy" + suffix);
+		}
+
+		String username = oAuth2UserService.generateUsername("busy");
+
+		assertThat(username).matches("busy\\d+");
+		assertThat(Integer.parseInt(username.substring(4))).isGreaterThan(CustomOAuth2UserService.CANDIDATE_SUFFIXES);
+		assertThat(userRepository.existsByUsername(username)).isFalse();
+	}
+
+	@Test
+	void retriesWithTheNextSuffixWhenTheUsernameIsTakenConcurrently() {
+		// Another sign-in claims "alice" between picking the username and inserting it
+		doAnswer(invocation -> {
+			Object free = realAnswer(invocation);
+			save("alice", "someone-else@example.com");
+			return free;
+		}).doAnswer(this::realAnswer).when(userRepository).findUsernamesIn(any());
+
+		User user = oAuth2UserService.registerNewUser(googleUser("alice@example.com"), "google");
+
+		assertThat(user.getUsername()).isEqualTo("alice1");
+		assertThat(user.getEmail()).isEqualTo("alice@example.com");
+		verify(userRepository, times(2)).findUsernamesIn(any());
+	}
+
+	@Test
+	void returnsTheConcurrentlyCreatedUserWhenTheEmailIsTaken() {
+		// The same person signing in twice: the other request inserts the email first
+		doAnswer(invocation -> {
+			Object free = realAnswer(invocation);
+			save("bob-first", "bob@example.com");
+			return free;
+		}).when(userRepository).findUsernamesIn(any());
+
+		User user = oAuth2UserService.registerNewUser(googleUser("bob@example.com"), "google");
+
+		assertThat(user.getUsername()).isEqualTo("bob-first");
+		assertThat(userRepository.count()).isEqualTo(1);
+		verify(userRepository, times(1)).findUsernamesIn(any());
+	}
+
+	// Repository spies wrap a JDK proxy, so the real call goes through the spy's delegating default answer
+	private Object realAnswer(InvocationOnMock invocation) throws Throwable {
+		return mockingDetails(userRepository).getMockCreationSettings().getDefaultAnswer().answer(invocation);
+	}
+
+	private static GoogleOAuth2UserInfo googleUser(String email) {
+		return new GoogleOAuth2UserInfo(Map.of("sub", email, "email", email));
+	}
+
+	private void save(String username) {
+		save(username, username + "@example.com");
+	}
+
+	private void save(String username, String email) {
+		userRepository.save(User.builder()
+				.email(email)
+				.username(username)
+				.provider(User.AuthProvider.GOOGLE)
+				.build());
+	}
+}
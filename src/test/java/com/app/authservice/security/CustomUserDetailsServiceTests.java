@@ -0,0 +1,101 @@
+package com.app.authservice.security;
+
+import com.app.authservice.model.User;
+import com.app.authservice.repo.UserRepository;
+import com.app.authservice.service.RoleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CustomUserDetailsServiceTests {
+
+	@Autowired
+	private CustomUserDetailsService userDetailsService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RoleService roleService;
+
+	@Autowired
+	private PrincipalCache principalCache;
+
+	@AfterEach
+	void tearDown() {
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void principalIsCachedUntilTheUserChanges() {
+		User user = User.builder()
+				.email("cached@example.com")
+				.username("cached")
+				.password("hash")
+				.build();
+		user.getRoles().add(roleService.getUserRole());
+		user = userRepository.save(user);
+
+		UserPrincipal first = (UserPrincipal) userDetailsService.loadUserById(user.getId());
+		assertThat(userDetailsService.loadUserById(user.getId())).isSameAs(first);
+		assertThat(userDetailsService.loadUserByUsername("cached@example.com")).isSameAs(first);
+
+		user.setEnabled(false);
+		userRepository.save(user);
+
+		String userId = user.getId();
+		assertThatThrownBy(() -> userDetailsService.loadUserById(userId))
+				.isInstanceOf(UsernameNotFoundException.class);
+		assertThatThrownBy(() -> userDetailsService.loadUserByUsername("cached"))
+				.isInstanceOf(UsernameNotFoundException.class);
+	}
+
+	@Test
+	void loadThatReadTheRowBeforeAnUpdateDoesNotCacheIt() {
+		User user = saveUser("racing");
+		UserPrincipal stale = (UserPrincipal) userDetailsService.loadUserById(user.getId());
+
+		// From an empty cache: a load reads the row, the role change commits, then the load caches what it read
+		principalCache.invalidate(user.getId());
+		long loadedAt = principalCache.generation();
+		user.getRoles().add(roleService.getAdminRole());
+		userRepository.save(user);
+		principalCache.put(stale, loadedAt);
+
+		assertThat(principalCache.getById(user.getId())).isNull();
+		assertThat(principalCache.getByName("racing")).isNull();
+		assertThat(userDetailsService.loadUserById(user.getId()).getAuthorities())
+				.extracting(Object::toString).contains("ROLE_ADMIN");
+	}
+
+	@Test
+	void usernameAndEmailLookupsShareOneEntry() {
+		User user = saveUser("shared");
+
+		UserPrincipal byName = (UserPrincipal) userDetailsService.loadUserByUsername("shared");
+		assertThat(userDetailsService.loadUserByEmail("shared@example.com")).isSameAs(byName);
+		assertThat(userDetailsService.loadUserById(user.getId())).isSameAs(byName);
+
+		principalCache.invalidate(user.getId());
+		assertThat(principalCache.getByName("shared")).isNull();
+		assertThat(principalCache.getByName("shared@example.com")).isNull();
+	}
+
+	private User saveUser(String username) {
+		User user = User.builder()
+				.email(username + "@example.com")
+				.username(username)
+				.password("hash")
+				.build();
+		user.getRoles().add(roleService.getUserRole());
+		return userRepository.save(user);
+	}
+}
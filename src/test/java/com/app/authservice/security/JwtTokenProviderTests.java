@@ -0,0 +1,173 @@
+package com.app.authservice.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtTokenProviderTests {
+
+	private static final String SECRET = "test-secret-key-for-jwt-signing-that-is-long-enough-for-hs512-signatures";
+
+	private JwtKeyRing keyRing;
+	private JwtTokenProvider tokenProvider;
+
+	@BeforeEach
+	void setUp() {
+		keyRing = new JwtKeyRing();
+		ReflectionTestUtils.setField(keyRing, "jwtSecret", SECRET);
+		ReflectionTestUtils.setField(keyRing, "jwtKeyId", "k1");
+		keyRing.init();
+
+		tokenProvider = new JwtTokenProvider(keyRing, new VerifiedTokenCache(new SimpleMeterRegistry()));
+		ReflectionTestUtils.setField(tokenProvider, "jwtExpiration", 60_000L);
+	}
+
+	@Test
+	void generatedTokenValidatesAndCarriesSubject() {
+		String token = tokenProvider.generateToken(authentication("user-1"));
+
+		assertThat(tokenProvider.validateToken(token)).isTrue();
+		assertThat(tokenProvider.getUserIdFromToken(token)).isEqualTo("user-1");
+	}
+
+	@Test
+	void verifyReturnsClaimsOrFailureReason() {
+		VerifiedToken verified = tokenProvider.verify(tokenProvider.generateToken(authentication("user-1")));
+
+		assertThat(verified.isValid()).isTrue();
+		assertThat(verified.getSubject()).isEqualTo("user-1");
+		assertThat(verified.getUsername()).isEqualTo("user-1");
+		assertThat(verified.getRoles()).containsExactly("ROLE_USER");
+		assertThat(verified.getExpiresAt()).isAfter(verified.getIssuedAt());
+
+		assertThat(tokenProvider.verify("not-a-jwt").getFailureReason())
+				.isEqualTo(VerifiedToken.FailureReason.MALFORMED);
+		assertThat(tokenProvider.verify("").getFailureReason())
+				.isEqualTo(VerifiedToken.FailureReason.EMPTY);
+	}
+
+	@Test
+	void tokensSignedWithPreviousKeyStayValidAfterRotation() {
+		String oldToken = tokenProvider.generateToken(authentication("user-1"));
+
+		keyRing.rotate("k2", "another-secret-key-for-jwt-signing-that-is-long-enough-for-hs512"
+				.getBytes(StandardCharsets.UTF_8));
+		String newToken = tokenProvider.generateToken(authentication("user-2"));
+
+		assertThat(keyRing.activeKey().kid()).isEqualTo("k2");
+		assertThat(tokenProvider.validateToken(oldToken)).isTrue();
+		assertThat(tokenProvider.validateToken(newToken)).isTrue();
+
+		keyRing.retire("k1");
+		assertThat(tokenProvider.validateToken(oldToken)).isFalse();
+		assertThat(tokenProvider.validateToken(newToken)).isTrue();
+	}
+
+	@Test
+	void verifiedTokenCacheServesRepeatVerificationsUntilKeyIsRetired() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		VerifiedTokenCache cache = new VerifiedTokenCache(registry);
+		ReflectionTestUtils.setField(cache, "enabled", true);
+		ReflectionTestUtils.setField(cache, "maxSize", 100L);
+		cache.init();
+		tokenProvider = new JwtTokenProvider(keyRing, cache);
+		ReflectionTestUtils.setField(tokenProvider, "jwtExpiration", 60_000L);
+
+		String token = tokenProvider.generateToken(authentication("user-1"));
+		VerifiedToken first = tokenProvider.verify(token);
+
+		assertThat(tokenProvider.verify(token)).isSameAs(first);
+		assertThat(registry.get("cache.gets").tag("cache", "jwt.verified").tag("result", "hit")
+				.functionCounter().count()).isEqualTo(1.0);
+
+		keyRing.rotate("k2", "another-secret-key-for-jwt-signing-that-is-long-enough-for-hs512"
+				.getBytes(StandardCharsets.UTF_8));
+		keyRing.retire("k1");
+		assertThat(tokenProvider.verify(token).isValid()).isFalse();
+	}
+
+	@Test
+	void cachedTokenWithoutKeyIdIsReverifiedOnceItsKeyIsRetired() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(cache, "enabled", true);
+		ReflectionTestUtils.setField(cache, "maxSize", 100L);
+		cache.init();
+		tokenProvider = new JwtTokenProvider(keyRing, cache);
+
+		// Issued before key ids were introduced: no kid header, signed with what is now k1
+		String token = Jwts.builder()
+				.setSubject("user-1")
+				.setExpiration(new Date(System.currentTimeMillis() + 60_000))
+				.signWith(keyRing.activeKey().signingKey(), keyRing.activeKey().algorithm())
+				.compact();
+		VerifiedToken first = tokenProvider.verify(token);
+		assertThat(first.getKeyId()).isEqualTo("k1");
+		assertThat(tokenProvider.verify(token)).isSameAs(first);
+
+		assertThat(keyRing.hasKey(null)).isFalse();
+		keyRing.rotate("k2", "another-secret-key-for-jwt-signing-that-is-long-enough-for-hs512"
+				.getBytes(StandardCharsets.UTF_8));
+		keyRing.retire("k1");
+		assertThat(tokenProvider.verify(token).isValid()).isFalse();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void asymmetricKeysSignTokensAndArePublishedInJwks() {
+		JwkSetProvider jwkSetProvider = new JwkSetProvider(keyRing);
+		assertThat((List<?>) jwkSetProvider.getDocument().json().get("keys")).isEmpty();
+
+		keyRing.rotate("ec-1", Keys.keyPairFor(SignatureAlgorithm.ES256), SignatureAlgorithm.ES256);
+		String token = tokenProvider.generateToken(authentication("user-1"));
+
+		assertThat(tokenProvider.verify(token).getKeyId()).isEqualTo("ec-1");
+
+		JwkSetProvider.Document document = jwkSetProvider.getDocument();
+		List<?> keys = (List<?>) document.json().get("keys");
+		assertThat(keys).hasSize(1);
+		assertThat((Map<String, Object>) keys.get(0)).containsEntry("kid", "ec-1").doesNotContainKey("d");
+		assertThat(jwkSetProvider.getDocument()).isSameAs(document);
+	}
+
+	@Test
+	void fastIssuerMatchesBuilderOutputByteForByte() {
+		UserPrincipal principal = new UserPrincipal("user-1", null, "na\"me\\ \n\u0001 é € \uD83D\uDE00", null,
+				List.of(new SimpleGrantedAuthority("users:read"), new SimpleGrantedAuthority("ROLE_USER")));
+		UsernamePasswordAuthenticationToken authentication =
+				new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+
+		ReflectionTestUtils.setField(tokenProvider, "fastIssuerEnabled", false);
+		String builderToken = tokenProvider.generateToken(authentication);
+		long issuedAtMillis = tokenProvider.verify(builderToken).getIssuedAt().toEpochMilli();
+
+		String fastToken = new HmacJwtIssuer().issue(keyRing.activeKey(), principal, issuedAtMillis, 60_000L);
+
+		assertThat(fastToken).isEqualTo(builderToken);
+	}
+
+	@Test
+	void activeKeyCannotBeRetired() {
+		assertThatThrownBy(() -> keyRing.retire("k1"))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	private UsernamePasswordAuthenticationToken authentication(String userId) {
+		UserPrincipal principal = new UserPrincipal(userId, userId + "@example.com", userId, null,
+				List.of(new SimpleGrantedAuthority("ROLE_USER")));
+		return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+	}
+}
@@ -0,0 +1,160 @@
+package com.app.authservice.security;
+
+import com.app.authservice.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginThrottleTests {
+
+	private static final String IP = "203.0.113.7";
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private LoginThrottle throttle;
+	private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+	// Reads the current value of now, so tick() moves time for the throttle
+	private final Clock clock = new Clock() {
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	};
+
+	@BeforeEach
+	void setUp() {
+		throttle = new LoginThrottle(meterRegistry, clock);
+		ReflectionTestUtils.setField(throttle, "enabled", true);
+		ReflectionTestUtils.setField(throttle, "window", Duration.ofMinutes(15));
+		ReflectionTestUtils.setField(throttle, "maxFailuresPerAccount", 5);
+		ReflectionTestUtils.setField(throttle, "maxFailuresPerIp", 20);
+		ReflectionTestUtils.setField(throttle, "delayAfter", 2);
+		ReflectionTestUtils.setField(throttle, "baseDelay", Duration.ofSeconds(1));
+		ReflectionTestUtils.setField(throttle, "maxDelay", Duration.ofSeconds(30));
+		ReflectionTestUtils.setField(throttle, "maxKeys", 1000L);
+		throttle.init();
+	}
+
+	@Test
+	void delaysGrowWithEachFailureAndAccountLocksAtTheLimit() {
+		fail(2);
+		assertThatCode(() -> probe("Jane", IP)).doesNotThrowAnyException();
+
+		fail(1);
+		assertThatThrownBy(() -> probe("jane", IP))
+				.isInstanceOf(TooManyRequestsException.class)
+				.extracting("retryAfterSeconds").isEqualTo(1L);
+		tick(Duration.ofSeconds(1));
+		assertThatCode(() -> probe("jane", IP)).doesNotThrowAnyException();
+
+		fail(2);
+		tick(Duration.ofMinutes(1));
+		assertThatThrownBy(() -> probe(" JANE ", IP))
+				.isInstanceOf(TooManyRequestsException.class)
+				.hasMessageContaining("account");
+		assertThat(meterRegistry.get("login.throttle.rejected").tag("scope", "account").counter().count())
+				.isEqualTo(2);
+		assertThat(meterRegistry.get("login.throttle.failures").counter().count()).isEqualTo(5);
+	}
+
+	@Test
+	void failuresSlideOutOfTheWindow() {
+		fail(5);
+		assertThatThrownBy(() -> probe("jane", IP)).isInstanceOf(TooManyRequestsException.class);
+
+		// Half way into the next window only half of the previous window still counts
+		tick(Duration.ofMinutes(15 + 8));
+		assertThatCode(() -> probe("jane", IP)).doesNotThrowAnyException();
+	}
+
+	@Test
+	void successResetsTheAccountButNotTheAddress() {
+		LoginThrottle.Attempt first = throttle.begin("user0", IP);
+		for (int i = 1; i < 20; i++) {
+			throttle.failed(throttle.begin("user" + i, IP));
+		}
+		throttle.succeeded(first);
+		assertThatCode(() -> probe("someone-else", IP)).doesNotThrowAnyException();
+
+		throttle.failed(throttle.begin("user20", IP));
+		assertThatThrownBy(() -> probe("someone-else", IP))
+				.isInstanceOf(TooManyRequestsException.class)
+				.hasMessageContaining("address");
+		assertThatCode(() -> probe("someone-else", "198.51.100.1")).doesNotThrowAnyException();
+	}
+
+	@Test
+	void parallelAttemptsCannotOvershootTheLimit() throws Exception {
+		ReflectionTestUtils.setField(throttle, "delayAfter", 100);
+		int threads = 16;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					try {
+						throttle.begin("jane", IP);
+						return true;
+					} catch (TooManyRequestsException ex) {
+						return false;
+					}
+				}));
+			}
+			start.countDown();
+
+			int started = 0;
+			for (Future<Boolean> result : results) {
+				started += result.get() ? 1 : 0;
+			}
+			assertThat(started).isEqualTo(5);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	// Each failure comes well after the last, so progressive delays never get in the way
+	private void fail(int times) {
+		for (int i = 0; i < times; i++) {
+			tick(Duration.ofSeconds(30));
+			throttle.failed(throttle.begin("jane", IP));
+		}
+	}
+
+	// An attempt that is taken back, so checking leaves no trace
+	private void probe(String usernameOrEmail, String clientIp) {
+		throttle.abandoned(throttle.begin(usernameOrEmail, clientIp));
+	}
+
+	private void tick(Duration duration) {
+		now = now.plus(duration);
+	}
+}
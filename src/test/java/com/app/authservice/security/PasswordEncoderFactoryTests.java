@@ -0,0 +1,55 @@
+package com.app.authservice.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordEncoderFactoryTests {
+
+	@Test
+	void legacyHashesStillMatchAndAreUpgraded() {
+		PasswordEncoder encoder = factory("bcrypt", 5).create();
+		String legacy = new BCryptPasswordEncoder(4).encode("secret");
+
+		assertThat(encoder.matches("secret", legacy)).isTrue();
+		assertThat(encoder.upgradeEncoding(legacy)).isTrue();
+
+		String current = encoder.encode("secret");
+		assertThat(current).startsWith("{bcrypt}$2a$05$");
+		assertThat(encoder.upgradeEncoding(current)).isFalse();
+	}
+
+	@Test
+	void lowerCostAndOtherAlgorithmsAreUpgraded() {
+		String weaker = factory("bcrypt", 4).create().encode("secret");
+		String pbkdf2 = factory("pbkdf2", 4).create().encode("secret");
+		PasswordEncoder encoder = factory("bcrypt", 5).create();
+
+		assertThat(encoder.matches("secret", weaker)).isTrue();
+		assertThat(encoder.upgradeEncoding(weaker)).isTrue();
+		assertThat(encoder.matches("secret", pbkdf2)).isTrue();
+		assertThat(encoder.upgradeEncoding(pbkdf2)).isTrue();
+	}
+
+	@Test
+	void calibrationStaysWithinBounds() {
+		PasswordEncoderFactory factory = factory("bcrypt", 0);
+		ReflectionTestUtils.setField(factory, "targetLatency", Duration.ofMillis(1));
+
+		assertThat(factory.calibrateBcrypt()).isEqualTo(PasswordEncoderFactory.MIN_BCRYPT_STRENGTH);
+	}
+
+	private static PasswordEncoderFactory factory(String algorithm, int strength) {
+		PasswordEncoderFactory factory = new PasswordEncoderFactory();
+		ReflectionTestUtils.setField(factory, "algorithm", algorithm);
+		ReflectionTestUtils.setField(factory, "bcryptStrength", strength);
+		ReflectionTestUtils.setField(factory, "targetLatency", Duration.ofMillis(250));
+		ReflectionTestUtils.setField(factory, "pbkdf2Iterations", 1000);
+		return factory;
+	}
+}
@@ -0,0 +1,88 @@
+package com.app.authservice.security;
+
+import com.app.authservice.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingExecutorTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private PasswordHashingExecutor executor;
+
+	@BeforeEach
+	void setUp() {
+		executor = new PasswordHashingExecutor(meterRegistry);
+		ReflectionTestUtils.setField(executor, "threads", 1);
+		ReflectionTestUtils.setField(executor, "queueCapacity", 1);
+		ReflectionTestUtils.setField(executor, "maxWait", Duration.ofSeconds(5));
+		executor.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		executor.shutdown();
+	}
+
+	@Test
+	void rejectsWhenThePoolAndQueueAreFull() throws Exception {
+		CountDownLatch running = new CountDownLatch(1);
+		CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> executor.execute("matches", () -> {
+			running.countDown();
+			await(release);
+			return "first";
+		}));
+		assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+		CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> executor.execute("matches", () -> "queued"));
+		while (meterRegistry.get("executor.queued").gauge().value() < 1) {
+			Thread.sleep(5);
+		}
+
+		assertThatThrownBy(() -> executor.execute("matches", () -> "rejected"))
+				.isInstanceOf(ServiceOverloadedException.class);
+		assertThat(meterRegistry.get("password.hashing.rejected").counter().count()).isEqualTo(1);
+
+		release.countDown();
+		assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+		assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+		assertThat(meterRegistry.get("password.hashing").tag("operation", "matches").timer().count()).isEqualTo(2);
+	}
+
+	@Test
+	void givesUpAfterMaxWait() {
+		ReflectionTestUtils.setField(executor, "maxWait", Duration.ofMillis(50));
+
+		assertThatThrownBy(() -> executor.execute("encode", () -> {
+			await(release);
+			return "late";
+		})).isInstanceOf(ServiceOverloadedException.class);
+	}
+
+	@Test
+	void taskExceptionsReachTheCaller() {
+		assertThatThrownBy(() -> executor.execute("encode", () -> {
+			throw new IllegalArgumentException("rawPassword cannot be null");
+		})).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package com.app.authservice.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Tomcat's RemoteIpValve only runs in a real server, so this goes over HTTP rather than MockMvc
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"auth.rate-limit.capacity=1",
+		"auth.rate-limit.refill-per-second=0.01",
+		"spring.data.redis.port=1" // nothing listens there, so buckets are local
+})
+@ActiveProfiles("test")
+class RateLimitFilterTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Test
+	void clientsBehindTheSameProxyGetSeparateBuckets() {
+		assertThat(checkAvailability("203.0.113.1")).isEqualTo(HttpStatus.OK);
+		assertThat(checkAvailability("203.0.113.1")).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+
+		assertThat(checkAvailability("203.0.113.2")).isEqualTo(HttpStatus.OK);
+	}
+
+	private HttpStatus checkAvailability(String forwardedFor) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.set("X-Forwarded-For", forwardedFor);
+		return HttpStatus.valueOf(restTemplate.exchange("/api/v1/auth/availability?username=nobody",
+				HttpMethod.GET, new HttpEntity<>(headers), String.class).getStatusCode().value());
+	}
+}
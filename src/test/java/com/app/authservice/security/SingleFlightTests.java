@@ -0,0 +1,78 @@
+package com.app.authservice.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final SingleFlight<String, Object> singleFlight = new SingleFlight<>("test", meterRegistry);
+
+	@Test
+	void concurrentCallersShareOneLoad() throws Exception {
+		int callers = 8;
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(callers);
+		try {
+			List<Future<Object>> results = new ArrayList<>();
+			for (int i = 0; i < callers; i++) {
+				results.add(executor.submit(() -> singleFlight.load("user-1", () -> {
+					loads.incrementAndGet();
+					await(release);
+					return new Object();
+				})));
+			}
+
+			// Hold the leader until every other caller has joined its flight
+			while (count("coalesced") < callers - 1) {
+				Thread.sleep(5);
+			}
+			release.countDown();
+
+			Object first = results.get(0).get(5, TimeUnit.SECONDS);
+			for (Future<Object> result : results) {
+				assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(first);
+			}
+			assertThat(loads).hasValue(1);
+			assertThat(count("loaded")).isEqualTo(1);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void failureIsRethrownAndNotRemembered() {
+		assertThatThrownBy(() -> singleFlight.load("missing", () -> {
+			throw new UsernameNotFoundException("User not found with id: missing");
+		})).isInstanceOf(UsernameNotFoundException.class);
+
+		assertThat(singleFlight.load("missing", () -> "found")).isEqualTo("found");
+		assertThat(count("loaded")).isEqualTo(2);
+	}
+
+	private double count(String result) {
+		return meterRegistry.get("single_flight.calls").tag("result", result).counter().count();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
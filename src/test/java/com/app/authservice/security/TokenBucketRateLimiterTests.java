@@ -0,0 +1,102 @@
+package com.app.authservice.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTests {
+
+	private static RedisServer redisServer;
+	private static int redisPort;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final List<LettuceConnectionFactory> connectionFactories = new ArrayList<>();
+	private final String keyPrefix = "test:" + UUID.randomUUID() + ":";
+
+	@BeforeAll
+	static void startRedis() throws IOException {
+		redisPort = freePort();
+		redisServer = new RedisServer(redisPort);
+		redisServer.start();
+	}
+
+	@AfterAll
+	static void stopRedis() throws IOException {
+		redisServer.stop();
+	}
+
+	@AfterEach
+	void tearDown() {
+		connectionFactories.forEach(LettuceConnectionFactory::destroy);
+	}
+
+	@Test
+	void nodesSharingRedisShareOneBucket() {
+		TokenBucketRateLimiter first = limiter(redisPort);
+		TokenBucketRateLimiter second = limiter(redisPort);
+
+		for (int i = 0; i < 3; i++) {
+			assertThat((i % 2 == 0 ? first : second).tryAcquire("login:203.0.113.7")).isZero();
+		}
+		long waitMillis = second.tryAcquire("login:203.0.113.7");
+
+		assertThat(waitMillis).isBetween(1L, 100_000L);
+		assertThat(first.tryAcquire("login:198.51.100.1")).isZero();
+		assertThat(meterRegistry.get("rate_limit.requests").tag("backend", "redis").tag("result", "rejected")
+				.counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void fallsBackToLocalBucketsWhenRedisIsDown() throws IOException {
+		TokenBucketRateLimiter limiter = limiter(freePort());
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(limiter.tryAcquire("register:203.0.113.7")).isZero();
+		}
+		assertThat(limiter.tryAcquire("register:203.0.113.7")).isPositive();
+		assertThat(meterRegistry.get("rate_limit.requests").tag("backend", "local").tag("result", "allowed")
+				.counter().count()).isEqualTo(3);
+	}
+
+	private TokenBucketRateLimiter limiter(int port) {
+		LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(
+				new RedisStandaloneConfiguration("localhost", port),
+				LettuceClientConfiguration.builder().commandTimeout(Duration.ofMillis(500)).build());
+		connectionFactory.afterPropertiesSet();
+		connectionFactories.add(connectionFactory);
+
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(new StringRedisTemplate(connectionFactory), meterRegistry,
+				Clock.systemUTC());
+		ReflectionTestUtils.setField(limiter, "capacity", 3);
+		// One token every 100 seconds, so nothing refills while the test runs
+		ReflectionTestUtils.setField(limiter, "refillPerSecond", 0.01);
+		ReflectionTestUtils.setField(limiter, "keyPrefix", keyPrefix);
+		ReflectionTestUtils.setField(limiter, "redisRetryInterval", Duration.ofSeconds(30));
+		limiter.init();
+		return limiter;
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
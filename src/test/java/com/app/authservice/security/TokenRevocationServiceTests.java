@@ -0,0 +1,84 @@
+package com.app.authservice.security;
+
+import com.app.authservice.model.User;
+import com.app.authservice.repo.UserRepository;
+import com.app.authservice.service.RoleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "auth.jwt.stateless.enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TokenRevocationServiceTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JwtTokenProvider tokenProvider;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RoleService roleService;
+
+	@AfterEach
+	void tearDown() {
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void disablingAnAccountRejectsItsStillValidTokens() throws Exception {
+		User user = User.builder()
+				.email("stateless@example.com")
+				.username("stateless")
+				.password("hash")
+				.build();
+		user.getRoles().add(roleService.getUserRole());
+		user = userRepository.save(user);
+		String token = tokenProvider.generateToken(UserPrincipal.create(user, List.of()));
+
+		mockMvc.perform(get("/api/v1/auth/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+				.andExpect(status().isOk());
+
+		user.setEnabled(false);
+		userRepository.save(user);
+
+		mockMvc.perform(get("/api/v1/auth/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void reloadKeepsChangesMadeWhileItRan() {
+		UserRepository repository = mock(UserRepository.class);
+		TokenRevocationService service = new TokenRevocationService(repository);
+		service.revokeUser("restored");
+
+		// Both changes commit after the reload's query has read the table
+		when(repository.findInactiveUserIds()).thenAnswer(invocation -> {
+			service.revokeUser("disabled");
+			service.restoreUser("restored");
+			return List.of("locked", "restored");
+		});
+		service.refresh();
+
+		assertThat(service.isRevoked("disabled")).isTrue();
+		assertThat(service.isRevoked("locked")).isTrue();
+		assertThat(service.isRevoked("restored")).isFalse();
+	}
+}
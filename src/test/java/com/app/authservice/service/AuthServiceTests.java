@@ -0,0 +1,306 @@
+package com.app.authservice.service;
+
+import com.app.authservice.dto.request.LoginRequest;
+import com.app.authservice.dto.request.RegisterRequest;
+import com.app.authservice.dto.request.TokenRefreshRequest;
+import com.app.authservice.dto.response.AuthResponse;
+import com.app.authservice.exception.BadRequestException;
+import com.app.authservice.exception.EmailAlreadyExistsException;
+import com.app.authservice.exception.TokenRefreshException;
+import com.app.authservice.exception.UsernameAlreadyExistsException;
+import com.app.authservice.model.RefreshToken;
+import com.app.authservice.model.User;
+import com.app.authservice.repo.RefreshTokenRepository;
+import com.app.authservice.repo.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AuthServiceTests {
+
+	@Autowired
+	private AuthService authService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RefreshTokenRepository refreshTokenRepository;
+
+	@Autowired
+	private RoleService roleService;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private LoginActivityRecorder loginActivityRecorder;
+
+	@Autowired
+	private AvailabilityService availabilityService;
+
+	@Autowired
+	private RefreshTokenService refreshTokenService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		User user = User.builder()
+				.email("login@example.com")
+				.username("login")
+				.password(passwordEncoder.encode("correct-horse"))
+				.provider(User.AuthProvider.LOCAL)
+				.build();
+		user.getRoles().add(roleService.getUserRole());
+		userRepository.save(user);
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+		refreshTokenRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void loginLoadsTheUserOnce() {
+		LoginRequest request = new LoginRequest();
+		request.setUsernameOrEmail("login@example.com");
+		request.setPassword("correct-horse");
+
+		authService.authenticateUser(request);
+
+		statistics.clear();
+		AuthResponse response = authService.authenticateUser(request);
+
+		// select user with roles, lock the user, insert refresh token, select the user's live sessions
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+		assertThat(response.getAccessToken()).isNotBlank();
+		assertThat(response.getRefreshToken()).isNotBlank();
+
+		assertThat(userRepository.findByUsername("login").orElseThrow().getLastLoginAt()).isNull();
+		loginActivityRecorder.flush();
+		assertThat(userRepository.findByUsername("login").orElseThrow().getLastLoginAt()).isNotNull();
+	}
+
+	@Test
+	void refreshTokensAreStoredAsDigests() {
+		LoginRequest request = new LoginRequest();
+		request.setUsernameOrEmail("login");
+		request.setPassword("correct-horse");
+
+		String token = authService.authenticateUser(request).getRefreshToken();
+
+		assertThat(token).hasSize(43);
+		RefreshToken stored = refreshTokenRepository.findAll().get(0);
+		assertThat(stored.getTokenHash()).hasSize(32);
+		assertThat(stored.getToken()).isNull();
+
+		TokenRefreshRequest refreshRequest = new TokenRefreshRequest();
+		refreshRequest.setRefreshToken(token);
+		assertThat(authService.refreshToken(refreshRequest).getRefreshToken()).isEqualTo(token);
+
+		refreshRequest.setRefreshToken(token.substring(1) + "A");
+		assertThatThrownBy(() -> authService.refreshToken(refreshRequest))
+				.isInstanceOf(TokenRefreshException.class);
+	}
+
+	@Test
+	void sessionsStayValidUpToTheLimitAndRevokeIndividually() {
+		ReflectionTestUtils.setField(refreshTokenService, "maxSessions", 2);
+		try {
+			String laptop = login();
+			String phone = login();
+			assertThat(refresh(laptop)).isNotNull();
+
+			String tablet = login();
+			assertThatThrownBy(() -> refresh(laptop)).isInstanceOf(TokenRefreshException.class);
+			assertThat(refresh(phone)).isNotNull();
+
+			String userId = userRepository.findByUsername("login").orElseThrow().getId();
+			authService.logoutSession(userId, phone);
+			assertThatThrownBy(() -> refresh(phone)).isInstanceOf(TokenRefreshException.class);
+			assertThat(refresh(tablet)).isNotNull();
+
+			String someoneElses = authService.registerUser(registerRequest("other", "other@example.com")).getRefreshToken();
+			assertThatThrownBy(() -> authService.logoutSession(userId, someoneElses))
+					.isInstanceOf(BadRequestException.class);
+			assertThatThrownBy(() -> authService.logoutSession(userId, "unknown"))
+					.isInstanceOf(BadRequestException.class);
+			assertThat(refresh(someoneElses)).isNotNull();
+
+			authService.logoutUser(userId);
+			assertThatThrownBy(() -> refresh(tablet)).isInstanceOf(TokenRefreshException.class);
+		} finally {
+			ReflectionTestUtils.setField(refreshTokenService, "maxSessions", 5);
+		}
+	}
+
+	@Test
+	void concurrentLoginsDoNotOvershootTheSessionLimit() throws Exception {
+		ReflectionTestUtils.setField(refreshTokenService, "maxSessions", 2);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<String>> logins = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				logins.add(executor.submit(() -> {
+					start.await();
+					return login();
+				}));
+			}
+			start.countDown();
+			for (Future<String> login : logins) {
+				login.get();
+			}
+
+			String userId = userRepository.findByUsername("login").orElseThrow().getId();
+			assertThat(refreshTokenRepository.findLiveIdsNewestFirst(userId, Instant.now())).hasSize(2);
+		} finally {
+			executor.shutdownNow();
+			ReflectionTestUtils.setField(refreshTokenService, "maxSessions", 5);
+		}
+	}
+
+	@Test
+	void passwordsAreHashedOutsideAnyTransaction() {
+		String storedHash = userRepository.findByUsername("login").orElseThrow().getPassword();
+		List<String> hashedInTransaction = new ArrayList<>();
+		// Delegates to the real encoder, reports every hash as outdated and notes calls made in a transaction
+		PasswordEncoder recording = new PasswordEncoder() {
+			@Override
+			public String encode(CharSequence rawPassword) {
+				record("encode");
+				return passwordEncoder.encode(rawPassword);
+			}
+
+			@Override
+			public boolean matches(CharSequence rawPassword, String encodedPassword) {
+				record("matches");
+				return passwordEncoder.matches(rawPassword, encodedPassword);
+			}
+
+			@Override
+			public boolean upgradeEncoding(String encodedPassword) {
+				return true;
+			}
+
+			private void record(String call) {
+				if (TransactionSynchronizationManager.isActualTransactionActive()) {
+					hashedInTransaction.add(call);
+				}
+			}
+		};
+		ReflectionTestUtils.setField(authService, "passwordEncoder", recording);
+		try {
+			LoginRequest request = new LoginRequest();
+			request.setUsernameOrEmail("login");
+			request.setPassword("correct-horse");
+			authService.authenticateUser(request);
+			authService.registerUser(registerRequest("hashed", "hashed@example.com"));
+		} finally {
+			ReflectionTestUtils.setField(authService, "passwordEncoder", passwordEncoder);
+		}
+
+		assertThat(hashedInTransaction).isEmpty();
+		String upgradedHash = userRepository.findByUsername("login").orElseThrow().getPassword();
+		assertThat(upgradedHash).isNotEqualTo(storedHash);
+		assertThat(passwordEncoder.matches("correct-horse", upgradedHash)).isTrue();
+	}
+
+	@Test
+	void wrongPasswordIsRejected() {
+		LoginRequest request = new LoginRequest();
+		request.setUsernameOrEmail("login");
+		request.setPassword("wrong");
+
+		assertThatThrownBy(() -> authService.authenticateUser(request))
+				.isInstanceOf(BadCredentialsException.class);
+	}
+
+	@Test
+	void registrationIsOneInsertAndMapsTakenValuesToConflicts() {
+		statistics.clear();
+		AuthResponse response = authService.registerUser(registerRequest("new", "new@example.com"));
+
+		// insert user, insert role link, lock the user, insert refresh token, select the user's live sessions
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(5);
+		assertThat(response.getAccessToken()).isNotBlank();
+		assertThat(availabilityService.isUsernameAvailable("new")).isFalse();
+		assertThat(availabilityService.isUsernameAvailable("someone-else")).isTrue();
+
+		assertThatThrownBy(() -> authService.registerUser(registerRequest("other", "login@example.com")))
+				.isInstanceOf(EmailAlreadyExistsException.class);
+		assertThatThrownBy(() -> authService.registerUser(registerRequest("login", "other@example.com")))
+				.isInstanceOf(UsernameAlreadyExistsException.class);
+	}
+
+	@Test
+	void availabilityFilterIsRebuiltAcrossPages() {
+		authService.registerUser(registerRequest("alice", "alice@example.com"));
+		authService.registerUser(registerRequest("bob", "bob@example.com"));
+		ReflectionTestUtils.setField(availabilityService, "rebuildBatchSize", 2);
+		try {
+			availabilityService.rebuild();
+		} finally {
+			ReflectionTestUtils.setField(availabilityService, "rebuildBatchSize", 10000);
+		}
+
+		// A name missing from the filter would be reported free without asking the database
+		assertThat(availabilityService.isUsernameAvailable("alice")).isFalse();
+		assertThat(availabilityService.isUsernameAvailable("bob")).isFalse();
+		assertThat(availabilityService.isUsernameAvailable("login")).isFalse();
+		assertThat(availabilityService.isUsernameAvailable("carol")).isTrue();
+	}
+
+	private static RegisterRequest registerRequest(String username, String email) {
+		RegisterRequest request = new RegisterRequest();
+		request.setUsername(username);
+		request.setEmail(email);
+		request.setPassword("correct-horse");
+		return request;
+	}
+
+	private String login() {
+		LoginRequest request = new LoginRequest();
+		request.setUsernameOrEmail("login");
+		request.setPassword("correct-horse");
+		return authService.authenticateUser(request).getRefreshToken();
+	}
+
+	private AuthResponse refresh(String refreshToken) {
+		TokenRefreshRequest request = new TokenRefreshRequest();
+		request.setRefreshToken(refreshToken);
+		return authService.refreshToken(request);
+	}
+}
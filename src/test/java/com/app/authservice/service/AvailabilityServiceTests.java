@@ -0,0 +1,75 @@
+package com.app.authservice.service;
+
+import com.app.authservice.util.BloomFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvailabilityServiceTests {
+
+	private final ScanningJdbcTemplate jdbcTemplate = new ScanningJdbcTemplate();
+	private AvailabilityService availabilityService;
+
+	@BeforeEach
+	void setUp() {
+		availabilityService = new AvailabilityService(null, jdbcTemplate, new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(availabilityService, "enabled", true);
+		ReflectionTestUtils.setField(availabilityService, "expectedUsers", 1000L);
+		ReflectionTestUtils.setField(availabilityService, "falsePositiveRate", 0.001);
+		ReflectionTestUtils.setField(availabilityService, "rebuildBatchSize", 2);
+		availabilityService.init();
+	}
+
+	@Test
+	void registrationsDuringARebuildAreKeptInTheNewFilter() {
+		availabilityService.rebuild();
+
+		// "aaron" commits after the scan has passed the start of the index
+		jdbcTemplate.pages = List.of(List.of("alice", "bob"), List.of("carol"));
+		jdbcTemplate.afterFirstPage = () -> availabilityService.markTaken("aaron");
+		availabilityService.rebuild();
+
+		assertThat(filter().mightContain("alice")).isTrue();
+		assertThat(filter().mightContain("carol")).isTrue();
+		assertThat(filter().mightContain("aaron")).isTrue();
+
+		// Once the rebuild is over, marks go straight to the filter and are not kept for the next one
+		availabilityService.markTaken("dave");
+		jdbcTemplate.pages = List.of(List.of("alice"));
+		jdbcTemplate.afterFirstPage = () -> {
+		};
+		availabilityService.rebuild();
+
+		assertThat(filter().mightContain("dave")).isFalse();
+	}
+
+	private BloomFilter filter() {
+		return (BloomFilter) ReflectionTestUtils.getField(availabilityService, "taken");
+	}
+
+	// Serves the keyset pages from memory, one per query
+	private static final class ScanningJdbcTemplate extends JdbcTemplate {
+
+		private List<List<String>> pages = List.of(List.of());
+		private Runnable afterFirstPage = () -> {
+		};
+		private int served;
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+			int page = "".equals(args[0]) ? 0 : served;
+			if (page == 1) {
+				afterFirstPage.run();
+			}
+			served = page + 1;
+			return page < pages.size() ? (List<T>) pages.get(page) : List.of();
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package com.app.authservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginActivityRecorderTests {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final FailingJdbcTemplate jdbcTemplate = new FailingJdbcTemplate();
+	private final RecordingTaskScheduler taskScheduler = new RecordingTaskScheduler();
+	private LoginActivityRecorder recorder;
+
+	@BeforeEach
+	void setUp() {
+		recorder = new LoginActivityRecorder(jdbcTemplate, meterRegistry, taskScheduler);
+		ReflectionTestUtils.setField(recorder, "maxPending", 3);
+		ReflectionTestUtils.setField(recorder, "batchSize", 500);
+		recorder.init();
+	}
+
+	@Test
+	void loginsBeyondTheBufferAreDroppedAndFlushedOnTheScheduler() {
+		for (int i = 0; i < 5; i++) {
+			recorder.recordLogin("user-" + i, NOW);
+		}
+
+		assertThat(pending()).isEqualTo(3);
+		assertThat(dropped()).isEqualTo(2);
+		assertThat(jdbcTemplate.writes).isZero();
+		assertThat(taskScheduler.tasks).hasSize(1);
+
+		// The early flush fails, so further overflows wait for the regular schedule
+		taskScheduler.tasks.get(0).run();
+		recorder.recordLogin("user-5", NOW);
+		recorder.recordLogin("user-0", NOW.plusMinutes(1));
+
+		assertThat(jdbcTemplate.writes).isEqualTo(1);
+		assertThat(taskScheduler.tasks).hasSize(1);
+		assertThat(pending()).isEqualTo(3);
+		assertThat(dropped()).isEqualTo(3);
+	}
+
+	@Test
+	void failedFlushPutsBackOnlyWhatStillFits() {
+		recorder.recordLogin("user-0", NOW);
+		recorder.recordLogin("user-1", NOW);
+		jdbcTemplate.duringWrite = () -> {
+			recorder.recordLogin("user-2", NOW);
+			recorder.recordLogin("user-3", NOW);
+		};
+
+		recorder.flush();
+
+		assertThat(pending()).isEqualTo(3);
+		assertThat(dropped()).isEqualTo(1);
+	}
+
+	private double pending() {
+		return meterRegistry.get("login_activity.pending").gauge().value();
+	}
+
+	private double dropped() {
+		return meterRegistry.get("login_activity.dropped").counter().count();
+	}
+
+	private static final class FailingJdbcTemplate extends JdbcTemplate {
+
+		private int writes;
+		private Runnable duringWrite = () -> {
+		};
+
+		@Override
+		public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+			writes++;
+			duringWrite.run();
+			throw new DataAccessResourceFailureException("database is down");
+		}
+	}
+
+	// Keeps scheduled tasks for the test to run, so nothing happens on other threads
+	private static final class RecordingTaskScheduler extends ThreadPoolTaskScheduler {
+
+		private final List<Runnable> tasks = new ArrayList<>();
+
+		@Override
+		public ScheduledFuture<?> schedule(Runnable task, Instant startTime) {
+			tasks.add(task);
+			return null;
+		}
+	}
+}
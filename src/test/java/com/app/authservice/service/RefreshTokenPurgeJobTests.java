@@ -0,0 +1,96 @@
+package com.app.authservice.service;
+
+import com.app.authservice.model.RefreshToken;
+import com.app.authservice.model.User;
+import com.app.authservice.repo.RefreshTokenRepository;
+import com.app.authservice.repo.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RefreshTokenPurgeJobTests {
+
+	@Autowired
+	private RefreshTokenPurgeJob purgeJob;
+
+	@Autowired
+	private JobLeaseService jobLeaseService;
+
+	@Autowired
+	private RefreshTokenRepository refreshTokenRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@AfterEach
+	void tearDown() {
+		refreshTokenRepository.deleteAll();
+		userRepository.deleteAll();
+		jdbcTemplate.update("DELETE FROM job_leases");
+	}
+
+	@Test
+	void deletesExpiredAndRevokedTokensInBatches() {
+		User user = userRepository.save(User.builder()
+				.email("purge@example.com")
+				.username("purge")
+				.provider(User.AuthProvider.LOCAL)
+				.build());
+		Instant now = Instant.now();
+		for (int i = 0; i < 5; i++) {
+			save(user, now.minus(1, ChronoUnit.HOURS), false);
+		}
+		save(user, now.plus(1, ChronoUnit.HOURS), true);
+		RefreshToken live = save(user, now.plus(1, ChronoUnit.HOURS), false);
+		ReflectionTestUtils.setField(purgeJob, "batchSize", 2);
+		double deletedBefore = meterRegistry.get("refresh_token.purge.deleted").counter().count();
+
+		assertThat(purgeJob.purge()).isEqualTo(6);
+
+		assertThat(refreshTokenRepository.findAll()).extracting(RefreshToken::getId).containsExactly(live.getId());
+		assertThat(meterRegistry.get("refresh_token.purge.deleted").counter().count() - deletedBefore).isEqualTo(6);
+	}
+
+	@Test
+	void onlyOneNodeHoldsTheLease() {
+		JobLeaseService otherNode = new JobLeaseService(jdbcTemplate);
+
+		assertThat(otherNode.tryAcquire(RefreshTokenPurgeJob.LEASE, Duration.ofMinutes(1))).isTrue();
+		assertThat(jobLeaseService.tryAcquire(RefreshTokenPurgeJob.LEASE, Duration.ofMinutes(1))).isFalse();
+		assertThat(purgeJob.purge()).isZero();
+
+		otherNode.release(RefreshTokenPurgeJob.LEASE);
+		assertThat(jobLeaseService.tryAcquire(RefreshTokenPurgeJob.LEASE, Duration.ofMinutes(1))).isTrue();
+	}
+
+	private RefreshToken save(User user, Instant expiryDate, boolean revoked) {
+		RefreshToken token = new RefreshToken();
+		token.setUser(user);
+		token.setSessionId(UUID.randomUUID().toString());
+		token.setCreatedAt(Instant.now());
+		token.setTokenHash(RefreshTokenService.hash(RefreshTokenService.generateToken()));
+		token.setExpiryDate(expiryDate);
+		token.setRevoked(revoked);
+		return refreshTokenRepository.save(token);
+	}
+}
@@ -0,0 +1,106 @@
+package com.app.authservice.service;
+
+import com.app.authservice.dto.response.TokenIntrospectionResult;
+import com.app.authservice.security.JwtKeyRing;
+import com.app.authservice.security.JwtTokenProvider;
+import com.app.authservice.security.TokenRevocationService;
+import com.app.authservice.security.UserPrincipal;
+import com.app.authservice.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenIntrospectionServiceTests {
+
+	private static final String SECRET = "test-secret-key-for-jwt-signing-that-is-long-enough-for-hs512-signatures";
+
+	private JwtTokenProvider tokenProvider;
+	private JwtTokenProvider expiredTokenProvider;
+	private TokenRevocationService tokenRevocationService;
+	private TokenIntrospectionService introspectionService;
+
+	@BeforeEach
+	void setUp() {
+		JwtKeyRing keyRing = new JwtKeyRing();
+		ReflectionTestUtils.setField(keyRing, "jwtSecret", SECRET);
+		ReflectionTestUtils.setField(keyRing, "jwtKeyId", "k1");
+		keyRing.init();
+
+		tokenProvider = new JwtTokenProvider(keyRing, new VerifiedTokenCache(new SimpleMeterRegistry()));
+		ReflectionTestUtils.setField(tokenProvider, "jwtExpiration", 3_600_000L);
+		expiredTokenProvider = new JwtTokenProvider(keyRing, new VerifiedTokenCache(new SimpleMeterRegistry()));
+		ReflectionTestUtils.setField(expiredTokenProvider, "jwtExpiration", -60_000L);
+
+		tokenRevocationService = new TokenRevocationService(null);
+		introspectionService = new TokenIntrospectionService(tokenProvider, tokenRevocationService);
+		ReflectionTestUtils.setField(introspectionService, "parallelThreshold", 8);
+		ReflectionTestUtils.setField(introspectionService, "maxCacheSeconds", 60L);
+	}
+
+	@Test
+	void classifiesValidExpiredRevokedAndMalformedTokens() {
+		tokenRevocationService.revokeUser("revoked");
+
+		List<TokenIntrospectionResult> results = introspectionService.introspect(List.of(
+				tokenProvider.generateToken(principal("valid")),
+				expiredTokenProvider.generateToken(principal("expired")),
+				tokenProvider.generateToken(principal("revoked")),
+				"not-a-jwt"));
+
+		assertThat(results).extracting(TokenIntrospectionResult::isActive).containsExactly(true, false, false, false);
+		assertThat(results.get(0).getSubject()).isEqualTo("valid");
+		assertThat(results.get(0).getRoles()).containsExactly("ROLE_USER");
+		assertThat(results.subList(1, 4)).allMatch(result -> result.getSubject() == null && result.getExpiresAt() == null);
+	}
+
+	@Test
+	void parallelBatchesKeepTheOrderOfTheRequest() {
+		tokenRevocationService.revokeUser("user-3");
+		List<String> tokens = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			tokens.add(i % 5 == 4
+					? expiredTokenProvider.generateToken(principal("user-" + i))
+					: tokenProvider.generateToken(principal("user-" + i)));
+		}
+
+		List<TokenIntrospectionResult> results = introspectionService.introspect(tokens);
+
+		assertThat(results).hasSize(40);
+		for (int i = 0; i < 40; i++) {
+			boolean active = i % 5 != 4 && i != 3;
+			assertThat(results.get(i).isActive()).as("token %d", i).isEqualTo(active);
+			if (active) {
+				assertThat(results.get(i).getSubject()).isEqualTo("user-" + i);
+			}
+		}
+	}
+
+	@Test
+	void cacheSecondsStopAtTheEarliestActiveExpiryAndTheCap() {
+		long now = Instant.now().getEpochSecond();
+
+		assertThat(introspectionService.cacheSeconds(List.of(active(now + 3600), active(now + 7200))))
+				.isEqualTo(60);
+		assertThat(introspectionService.cacheSeconds(List.of(active(now + 3600), active(now + 20),
+				TokenIntrospectionResult.inactive()))).isBetween(19L, 20L);
+		assertThat(introspectionService.cacheSeconds(List.of(active(now - 5)))).isZero();
+		assertThat(introspectionService.cacheSeconds(List.of(TokenIntrospectionResult.inactive()))).isEqualTo(60);
+	}
+
+	private static TokenIntrospectionResult active(long expiresAt) {
+		return new TokenIntrospectionResult(true, "user", "user", List.of(), expiresAt, expiresAt - 3600);
+	}
+
+	private static UserPrincipal principal(String id) {
+		return new UserPrincipal(id, id + "@example.com", id, null,
+				List.of(new SimpleGrantedAuthority("ROLE_USER")));
+	}
+}
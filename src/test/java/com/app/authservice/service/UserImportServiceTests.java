@@ -0,0 +1,84 @@
+package com.app.authservice.service;
+
+import com.app.authservice.dto.response.UserImportReport;
+import com.app.authservice.model.User;
+import com.app.authservice.repo.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserImportServiceTests {
+
+	@Autowired
+	private UserImportService userImportService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@AfterEach
+	void tearDown() {
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void importsValidRowsAndReportsTheRest() {
+		String ndjson = """
+				{"email":"ada@example.com","username":"ada","password":"secret-1","firstName":"Ada"}
+				{"email":"grace@example.com","username":"grace","password":"secret-2"}
+				{"email":"not-an-email","username":"bad","password":"secret-3"}
+				{"email":"ada@example.com","username":"ada2","password":"secret-4"}
+				{not json
+
+				{"email":"linus@example.com","username":"linus","password":"secret-5"}
+				""";
+
+		UserImportReport report = import_(ndjson, UserImportService.Format.NDJSON);
+
+		assertThat(report.getTotal()).isEqualTo(6);
+		assertThat(report.getImported()).isEqualTo(3);
+		assertThat(report.getFailed()).isEqualTo(3);
+		assertThat(report.getErrors()).extracting(UserImportReport.RowError::getLine).containsExactly(3L, 4L, 5L);
+
+		User ada = userRepository.findByUsername("ada").orElseThrow();
+		assertThat(ada.getFirstName()).isEqualTo("Ada");
+		assertThat(ada.getRoles()).extracting("name").containsExactly("USER");
+		assertThat(passwordEncoder.matches("secret-1", ada.getPassword())).isTrue();
+	}
+
+	@Test
+	void importsCsvWithQuotedFieldsAndSkipsTakenUsernames() {
+		import_("email,username,password\nfirst@example.com,first,secret-1\n", UserImportService.Format.CSV);
+
+		String csv = """
+				email,username,password,first_name,last_name
+				second@example.com,second,secret-2,"Smith, Jr.","O""Brien"
+				other@example.com,first,secret-3,,
+				""";
+
+		UserImportReport report = import_(csv, UserImportService.Format.CSV);
+
+		assertThat(report.getImported()).isEqualTo(1);
+		assertThat(report.getErrors()).extracting(UserImportReport.RowError::getLine).containsExactly(3L);
+		User second = userRepository.findByUsername("second").orElseThrow();
+		assertThat(second.getFirstName()).isEqualTo("Smith, Jr.");
+		assertThat(second.getLastName()).isEqualTo("O\"Brien");
+	}
+
+	private UserImportReport import_(String input, UserImportService.Format format) {
+		return userImportService.importUsers(
+				new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), format);
+	}
+}
@@ -0,0 +1,28 @@
+package com.app.authservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTests {
+
+	@Test
+	void neverMissesAddedValuesAndStaysNearTheFalsePositiveRate() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			filter.put("user" + i);
+		}
+
+		for (int i = 0; i < 10_000; i++) {
+			assertThat(filter.mightContain("user" + i)).isTrue();
+		}
+
+		int falsePositives = 0;
+		for (int i = 0; i < 10_000; i++) {
+			if (filter.mightContain("other" + i)) {
+				falsePositives++;
+			}
+		}
+		assertThat(falsePositives).isLessThan(300);
+	}
+}